@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -17,4 +18,30 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+    // Contrato de los DAO también contra MySQL (opcional, crea filas y las da de baja):
+    //   ./gradlew test -PtestDbUrl=jdbc:mysql://localhost:3306/dbtpi3_bench
+    (findProperty("testDbUrl") as String?)?.let {
+        systemProperty("test.mysql", "true")
+        systemProperty("db.url", it)
+        systemProperty("db.user", findProperty("testDbUser") ?: "root")
+        systemProperty("db.password", findProperty("testDbPassword") ?: "12345")
+    }
+}
+
+// Benchmarks JMH (src/jmh/java). Ejecutar con: ./gradlew jmh
+// Los benchmarks de BD usan una base dedicada (se vacía en cada corrida):
+//   ./gradlew jmh -PbenchDbUrl=jdbc:mysql://localhost:3306/dbtpi3_bench
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    jvmArgsAppend.set(listOf(
+        "-Ddb.url=" + (findProperty("benchDbUrl") ?: "jdbc:mysql://localhost:3306/dbtpi3_bench"),
+        "-Ddb.user=" + (findProperty("benchDbUser") ?: "root"),
+        "-Ddb.password=" + (findProperty("benchDbPassword") ?: "12345")
+    ))
+    (findProperty("jmhInclude") as String?)?.let { includes.set(listOf(it)) }
+}
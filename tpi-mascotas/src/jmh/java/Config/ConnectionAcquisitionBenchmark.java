@@ -0,0 +1,38 @@
+package Config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de obtener y devolver una conexión de DatabaseConnection (pool),
+ * con un hilo y con contención entre varios hilos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConnectionAcquisitionBenchmark {
+
+    @Benchmark
+    public boolean getConnection() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return conn.getAutoCommit();
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean getConnectionContended() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return conn.getAutoCommit();
+        }
+    }
+}
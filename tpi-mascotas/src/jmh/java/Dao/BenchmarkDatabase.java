@@ -0,0 +1,55 @@
+package Dao;
+
+import Config.DatabaseConnection;
+import Models.Mascota;
+import Models.Microchip;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prepara la base de datos de benchmarks: la vacía y la carga con N mascotas.
+ *
+ * Por seguridad solo opera si -Ddb.url apunta a una base cuyo nombre contiene "bench"
+ * (ver bloque jmh en build.gradle.kts), para no borrar nunca datos reales.
+ */
+final class BenchmarkDatabase {
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Vacía ambas tablas y carga tableSize mascotas, cada una con su microchip.
+     *
+     * @return Mascotas insertadas (con sus IDs generados)
+     */
+    static List<Mascota> resetAndSeed(MascotaDAO mascotaDAO, MicrochipDAO microchipDAO, int tableSize) throws Exception {
+        String url = System.getProperty("db.url", "");
+        if (!url.contains("bench")) {
+            throw new IllegalStateException("Los benchmarks vacían la BD: db.url debe apuntar a una base de benchmark (" + url + ")");
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM mascotas");
+            stmt.executeUpdate("DELETE FROM microchips");
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo preparar la BD de benchmark: " + e.getMessage(), e);
+        }
+
+        List<Microchip> microchips = new ArrayList<>(tableSize);
+        List<Mascota> mascotas = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            Microchip microchip = new Microchip(0, String.format("9001%011d", i), "Virbac");
+            Mascota mascota = new Mascota(0, "Mascota " + i, i % 3 == 0 ? "Gato" : "Perro", "SEED-" + i);
+            mascota.setMicrochip(microchip);
+            microchips.add(microchip);
+            mascotas.add(mascota);
+        }
+        microchipDAO.insertarBatch(microchips);
+        mascotaDAO.insertarBatch(mascotas);
+        return mascotas;
+    }
+}
@@ -0,0 +1,81 @@
+package Dao;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ResultSet en memoria (proxy dinámico) para medir el mapeo de filas sin BD.
+ *
+ * Soporta lo que usan los mappers de los DAO: next(), getInt/getString por etiqueta
+ * o por índice, findColumn(), wasNull() y close(). Las etiquetas se resuelven con un
+ * HashMap case-insensitive, igual que hace el driver de MySQL.
+ */
+final class InMemoryResultSet {
+    private InMemoryResultSet() {
+    }
+
+    /**
+     * @param labels Etiquetas de las columnas (posición 1 = labels[0])
+     * @param rows Filas; cada valor es Integer, String o null
+     * @return ResultSet posicionado antes de la primera fila
+     */
+    static ResultSet of(String[] labels, List<Object[]> rows) {
+        Map<String, Integer> indexByLabel = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            indexByLabel.putIfAbsent(labels[i].toLowerCase(Locale.ROOT), i + 1);
+        }
+
+        int[] cursor = {-1};
+        boolean[] lastWasNull = {false};
+
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.size();
+                        case "beforeFirst":
+                            cursor[0] = -1;
+                            return null;
+                        case "findColumn":
+                            return column(indexByLabel, (String) args[0]);
+                        case "getInt": {
+                            Object value = value(rows, cursor[0], indexByLabel, args[0]);
+                            lastWasNull[0] = value == null;
+                            return value == null ? 0 : (Integer) value;
+                        }
+                        case "getString": {
+                            Object value = value(rows, cursor[0], indexByLabel, args[0]);
+                            lastWasNull[0] = value == null;
+                            return (String) value;
+                        }
+                        case "wasNull":
+                            return lastWasNull[0];
+                        case "close":
+                            return null;
+                        case "isClosed":
+                            return false;
+                        default:
+                            throw new UnsupportedOperationException("InMemoryResultSet no soporta " + method.getName());
+                    }
+                });
+    }
+
+    private static Object value(List<Object[]> rows, int cursor, Map<String, Integer> indexByLabel, Object column)
+            throws SQLException {
+        int index = column instanceof Integer ? (Integer) column : column(indexByLabel, (String) column);
+        return rows.get(cursor)[index - 1];
+    }
+
+    private static int column(Map<String, Integer> indexByLabel, String label) throws SQLException {
+        Integer index = indexByLabel.get(label.toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new SQLException("Columna inexistente: " + label);
+        }
+        return index;
+    }
+}
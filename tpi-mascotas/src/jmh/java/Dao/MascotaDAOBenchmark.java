@@ -0,0 +1,153 @@
+package Dao;
+
+import Models.Mascota;
+import Models.Microchip;
+import Service.MascotaServiceImpl;
+import Service.MicrochipServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks de MascotaDAO y MascotaServiceImpl contra una BD MySQL local
+ * cargada con tableSize mascotas (ver BenchmarkDatabase).
+ *
+ * Las lecturas eligen ids/tags al azar entre las filas sembradas; las inserciones
+ * usan tags únicos, por lo que la tabla crece durante la corrida.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MascotaDAOBenchmark {
+    private static final int BATCH_ROWS = 100;
+    private static final int DASHBOARD_SIZE = 200;
+
+    @Param({"1000", "10000", "100000"})
+    public int tableSize;
+
+    private final AtomicLong secuencia = new AtomicLong();
+
+    private MascotaDAO mascotaDAO;
+    private MascotaServiceImpl mascotaService;
+    private int[] ids;
+    private String[] tags;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        MicrochipDAO microchipDAO = new MicrochipDAO();
+        mascotaDAO = new MascotaDAO(microchipDAO);
+        mascotaService = new MascotaServiceImpl(mascotaDAO, new MicrochipServiceImpl(microchipDAO));
+
+        List<Mascota> sembradas = BenchmarkDatabase.resetAndSeed(mascotaDAO, microchipDAO, tableSize);
+        ids = sembradas.stream().mapToInt(Mascota::getId).toArray();
+        tags = sembradas.stream().map(Mascota::getCodigoTag).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public Mascota getById() throws Exception {
+        return mascotaDAO.getById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    /**
+     * Carga de DASHBOARD_SIZE mascotas al azar con getByIds (IN por tramos: 2 consultas).
+     */
+    @Benchmark
+    public Map<Integer, Mascota> getByIds() throws Exception {
+        return mascotaDAO.getByIds(idsAlAzar());
+    }
+
+    /**
+     * Línea base de getByIds: la misma carga con un getById por mascota.
+     */
+    @Benchmark
+    public List<Mascota> getByIdEnBucle() throws Exception {
+        List<Mascota> mascotas = new ArrayList<>(DASHBOARD_SIZE);
+        for (int id : idsAlAzar()) {
+            mascotas.add(mascotaDAO.getById(id));
+        }
+        return mascotas;
+    }
+
+    @Benchmark
+    public Mascota buscarPorCodigoTag() throws Exception {
+        return mascotaDAO.buscarPorCodigoTag(tags[ThreadLocalRandom.current().nextInt(tags.length)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Mascota> getAll() throws Exception {
+        return mascotaDAO.getAll();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long streamAll() throws Exception {
+        try (Stream<Mascota> mascotas = mascotaDAO.streamAll()) {
+            return mascotas.count();
+        }
+    }
+
+    @Benchmark
+    public Mascota insertar() throws Exception {
+        Mascota mascota = nuevaMascota();
+        mascotaDAO.insertar(mascota);
+        return mascota;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Mascota> insertarBatch() throws Exception {
+        List<Mascota> lote = new ArrayList<>(BATCH_ROWS);
+        for (int i = 0; i < BATCH_ROWS; i++) {
+            lote.add(nuevaMascota());
+        }
+        mascotaDAO.insertarBatch(lote);
+        return lote;
+    }
+
+    /**
+     * Camino completo del servicio: validación + transacción mascota/microchip.
+     */
+    @Benchmark
+    public Mascota serviceInsertarConMicrochip() throws Exception {
+        Mascota mascota = nuevaMascota();
+        mascota.setMicrochip(new Microchip(0, String.format("9002%011d", secuencia.get()), "Virbac"));
+        mascotaService.insertar(mascota);
+        return mascota;
+    }
+
+    /**
+     * Lectura por tag a través del servicio (incluye la caché de MascotaServiceImpl).
+     */
+    @Benchmark
+    public Mascota serviceBuscarPorCodigoTag() throws Exception {
+        return mascotaService.buscarPorCodigoTag(tags[ThreadLocalRandom.current().nextInt(tags.length)]);
+    }
+
+    private List<Integer> idsAlAzar() {
+        List<Integer> elegidos = new ArrayList<>(DASHBOARD_SIZE);
+        for (int i = 0; i < DASHBOARD_SIZE; i++) {
+            elegidos.add(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+        }
+        return elegidos;
+    }
+
+    private Mascota nuevaMascota() {
+        long n = secuencia.incrementAndGet();
+        return new Mascota(0, "Bench " + n, "Perro", "BENCH-" + n);
+    }
+}
@@ -0,0 +1,149 @@
+package Dao;
+
+import Models.Mascota;
+import Models.Microchip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de mapear filas a entidades (mapResultSetToMascota / mapResultSetToMicrochip)
+ * sin BD, sobre un ResultSet en memoria con las mismas columnas que las queries reales.
+ * El resultado es por operación = una pasada completa sobre rowCount filas.
+ *
+ * Los benchmarks *PorEtiqueta reproducen el mapeo anterior (getInt("id"), ...) como
+ * línea base: la diferencia con mapMascotas/mapMicrochips es el costo por fila de
+ * resolver etiquetas que ahorran las proyecciones fijas con lectura por posición.
+ *
+ * Los benchmarks *ChipCompartido usan un resultado donde cada microchip aparece en
+ * CHIP_COMPARTIDO_POR filas: comparan una instancia de Microchip por fila contra el mapa
+ * de identidad por consulta de getAll/búsquedas (una instancia por microchip).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RowMappingBenchmark {
+    /** Columnas de MascotaDAO.SELECT_COLUMNS, en el mismo orden. */
+    private static final String[] MASCOTA_COLUMNS =
+            {"id", "nombre", "especie", "codigo_tag", "microchip_id", "mic_id", "codigo_chip", "marca"};
+
+    /** Columnas de MicrochipDAO.SELECT_COLUMNS, en el mismo orden. */
+    private static final String[] MICROCHIP_COLUMNS = {"id", "codigo_chip", "marca"};
+
+    /** Mascotas que comparten cada microchip en los benchmarks *ChipCompartido. */
+    private static final int CHIP_COMPARTIDO_POR = 10;
+
+    @Param({"1000", "10000"})
+    public int rowCount;
+
+    private final MicrochipDAO microchipDAO = new MicrochipDAO();
+    private final MascotaDAO mascotaDAO = new MascotaDAO(microchipDAO);
+
+    private ResultSet mascotas;
+    private ResultSet microchips;
+    private ResultSet mascotasChipCompartido;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Object[]> mascotaRows = new ArrayList<>(rowCount);
+        List<Object[]> microchipRows = new ArrayList<>(rowCount);
+        List<Object[]> compartidoRows = new ArrayList<>(rowCount);
+        for (int i = 1; i <= rowCount; i++) {
+            // La mitad de las mascotas sin microchip para ejercitar el camino NULL del LEFT JOIN
+            boolean conChip = i % 2 == 0;
+            mascotaRows.add(new Object[]{i, "Mascota " + i, i % 3 == 0 ? "Gato" : "Perro", "TAG-" + i,
+                    conChip ? i : null, conChip ? i : null, conChip ? String.format("9001%011d", i) : null,
+                    conChip ? "Virbac" : null});
+            microchipRows.add(new Object[]{i, String.format("9001%011d", i), "Virbac"});
+            int chipId = (i - 1) / CHIP_COMPARTIDO_POR + 1;
+            compartidoRows.add(new Object[]{i, "Mascota " + i, "Perro", "TAG-" + i,
+                    chipId, chipId, String.format("9001%011d", chipId), "Virbac"});
+        }
+        mascotas = InMemoryResultSet.of(MASCOTA_COLUMNS, mascotaRows);
+        microchips = InMemoryResultSet.of(MICROCHIP_COLUMNS, microchipRows);
+        mascotasChipCompartido = InMemoryResultSet.of(MASCOTA_COLUMNS, compartidoRows);
+    }
+
+    @Benchmark
+    public void mapMascotas(Blackhole bh) throws SQLException {
+        mascotas.beforeFirst();
+        while (mascotas.next()) {
+            bh.consume(mascotaDAO.mapResultSetToMascota(mascotas));
+        }
+    }
+
+    @Benchmark
+    public void mapMicrochips(Blackhole bh) throws SQLException {
+        microchips.beforeFirst();
+        while (microchips.next()) {
+            bh.consume(microchipDAO.mapResultSetToMicrochip(microchips));
+        }
+    }
+
+    @Benchmark
+    public void mapMascotasChipCompartido(Blackhole bh) throws SQLException {
+        mascotasChipCompartido.beforeFirst();
+        while (mascotasChipCompartido.next()) {
+            bh.consume(mascotaDAO.mapResultSetToMascota(mascotasChipCompartido));
+        }
+    }
+
+    @Benchmark
+    public void mapMascotasChipCompartidoConIdentidad(Blackhole bh) throws SQLException {
+        Map<Integer, Microchip> identidad = new HashMap<>();
+        mascotasChipCompartido.beforeFirst();
+        while (mascotasChipCompartido.next()) {
+            bh.consume(mascotaDAO.mapResultSetToMascota(mascotasChipCompartido, identidad));
+        }
+    }
+
+    @Benchmark
+    public void mapMascotasPorEtiqueta(Blackhole bh) throws SQLException {
+        mascotas.beforeFirst();
+        while (mascotas.next()) {
+            bh.consume(mapMascotaPorEtiqueta(mascotas));
+        }
+    }
+
+    @Benchmark
+    public void mapMicrochipsPorEtiqueta(Blackhole bh) throws SQLException {
+        microchips.beforeFirst();
+        while (microchips.next()) {
+            bh.consume(new Microchip(microchips.getInt("id"), microchips.getString("codigo_chip"),
+                    microchips.getString("marca")));
+        }
+    }
+
+    /** Mapeo por etiqueta equivalente a MascotaDAO.mapResultSetToMascota antes de leer por posición. */
+    private static Mascota mapMascotaPorEtiqueta(ResultSet rs) throws SQLException {
+        Mascota mascota = new Mascota();
+        mascota.setId(rs.getInt("id"));
+        mascota.setNombre(rs.getString("nombre"));
+        mascota.setEspecie(rs.getString("especie"));
+        mascota.setCodigoTag(rs.getString("codigo_tag"));
+        int microchipId = rs.getInt("microchip_id");
+        if (microchipId > 0 && !rs.wasNull()) {
+            Microchip microchip = new Microchip();
+            microchip.setId(rs.getInt("mic_id"));
+            microchip.setCodigoChip(rs.getString("codigo_chip"));
+            microchip.setMarca(rs.getString("marca"));
+            mascota.setMicrochip(microchip);
+        }
+        return mascota;
+    }
+}
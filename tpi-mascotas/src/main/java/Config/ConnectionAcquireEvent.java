@@ -0,0 +1,22 @@
+package Config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de DatabaseConnection.getConnection(): su duración es la espera
+ * por una conexión del pool (incluye validarla o abrir una nueva).
+ */
+@Name("tpi.mascotas.ConnectionAcquire")
+@Label("Obtener conexión")
+@Category({"TPI Mascotas", "Base de datos"})
+@Description("Préstamo de una conexión del pool, incluida la espera por una libre")
+@StackTrace(false)
+final class ConnectionAcquireEvent extends Event {
+    @Label("Exitoso")
+    boolean exitoso;
+}
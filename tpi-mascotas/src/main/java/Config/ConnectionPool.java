@@ -0,0 +1,334 @@
+package Config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de conexiones JDBC acotado usado internamente por DatabaseConnection.
+ *
+ * Características:
+ * - Tamaño mínimo y máximo configurables (las conexiones se crean bajo demanda)
+ * - Espera justa (FIFO) cuando todas las conexiones están prestadas
+ * - Validación de la conexión física antes de prestarla (Connection.isValid)
+ * - Desalojo periódico de conexiones ociosas por encima del mínimo
+ *
+ * Cada préstamo devuelve un proxy de Connection: llamar a close() sobre el proxy
+ * (try-with-resources en los DAO, TransactionManager.close()) devuelve la conexión
+ * física al pool en lugar de cerrar el socket.
+ *
+ * Cada conexión física tiene además su StatementCache: los prepareStatement(sql)
+ * repetidos reutilizan el PreparedStatement (preparado en el servidor) ya creado.
+ * Los Statement prestados se envuelven en MeteredStatement para QueryMetrics y para
+ * el DaoCallEvent de JFR (si alguno de los dos está activo).
+ */
+final class ConnectionPool {
+    private final String url;
+    private final int minSize;
+    private final long idleTimeoutMs;
+    private final long maxWaitMs;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final Properties connectionProperties;
+
+    /** Permisos de préstamo. Fair = los hilos obtienen conexión en orden de llegada. */
+    private final Semaphore permits;
+
+    /** Conexiones físicas libres (LIFO: se reutiliza primero la más reciente). */
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+    /** Hilo daemon que desaloja conexiones ociosas y repone el mínimo. */
+    private final ScheduledExecutorService evictor;
+
+    /** Cantidad de conexiones físicas abiertas (prestadas + ociosas). Protegido por idle. */
+    private int totalConnections;
+
+    private volatile boolean closed;
+
+    ConnectionPool(String url, String user, String password,
+                   int minSize, int maxSize, long idleTimeoutMs, long maxWaitMs, int validationTimeoutSeconds,
+                   int statementCacheSize) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalStateException("Tamaño de pool inválido: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.minSize = minSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxWaitMs = maxWaitMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.connectionProperties = new Properties();
+        connectionProperties.setProperty("user", user);
+        connectionProperties.setProperty("password", password);
+        if (statementCacheSize > 0) {
+            // Prepared statements del lado del servidor: combinados con StatementCache,
+            // cada SQL se prepara una sola vez por conexión física
+            connectionProperties.setProperty("useServerPrepStmts", "true");
+        }
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, idleTimeoutMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictAndRefill, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Presta una conexión del pool, esperando (en orden FIFO) hasta maxWaitMs si no hay libres.
+     *
+     * @return Proxy de Connection cuyo close() la devuelve al pool
+     * @throws SQLException Si se agota la espera, el pool está cerrado o no se puede abrir una conexión
+     */
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+        long inicio = System.nanoTime();
+        try {
+            try {
+                if (!permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                    throw new SQLException("Tiempo de espera agotado (" + maxWaitMs + " ms) esperando una conexión libre del pool");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido mientras se esperaba una conexión del pool", e);
+            }
+
+            try {
+                PooledConnection pooled;
+                while ((pooled = pollIdle()) != null) {
+                    if (isUsable(pooled)) {
+                        break;
+                    }
+                    discard(pooled);
+                }
+                return (pooled != null ? pooled : openPhysical()).lease();
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        } finally {
+            // También las esperas agotadas o fallidas: son las que más importan en la cola del histograma
+            if (QueryMetrics.ENABLED) {
+                QueryMetrics.registrarEsperaConexion(System.nanoTime() - inicio);
+            }
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones ociosas y detiene el desalojador.
+     * Las conexiones prestadas se cierran al devolverse.
+     */
+    void close() {
+        closed = true;
+        evictor.shutdownNow();
+        List<PooledConnection> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        toClose.forEach(this::discard);
+    }
+
+    private PooledConnection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        synchronized (idle) {
+            totalConnections++;
+        }
+        try {
+            return new PooledConnection(DriverManager.getConnection(url, connectionProperties));
+        } catch (SQLException | RuntimeException e) {
+            synchronized (idle) {
+                totalConnections--;
+            }
+            throw e;
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        synchronized (idle) {
+            totalConnections--;
+        }
+        try {
+            if (pooled.statementCache != null) {
+                pooled.statementCache.closeAll();
+            }
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar una conexión del pool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recibe una conexión devuelta por un proxy. Restaura el estado por defecto
+     * (autocommit) y la deja disponible; si no se puede restaurar, se descarta.
+     */
+    private void giveBack(PooledConnection pooled) {
+        try {
+            if (!pooled.physical.isClosed() && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (closed || pooled.physical.isClosed()) {
+                discard(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.addFirst(pooled);
+                }
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Tarea periódica: cierra las conexiones ociosas más viejas que idleTimeoutMs
+     * mientras haya más que minSize, y abre conexiones hasta alcanzar minSize.
+     */
+    private void evictAndRefill() {
+        long limit = System.currentTimeMillis() - idleTimeoutMs;
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections - expired.size() > minSize) {
+                PooledConnection pooled = it.next();
+                if (pooled.lastUsed < limit) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        }
+        expired.forEach(this::discard);
+
+        while (!closed) {
+            synchronized (idle) {
+                if (totalConnections >= minSize) {
+                    return;
+                }
+            }
+            try {
+                PooledConnection pooled = openPhysical();
+                pooled.lastUsed = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.addLast(pooled);
+                }
+            } catch (SQLException e) {
+                // La BD puede no estar disponible todavía; se reintenta en la próxima ejecución
+                return;
+            }
+        }
+    }
+
+    /**
+     * Conexión física administrada por el pool.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastUsed;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0 ? new StatementCache(physical, statementCacheSize) : null;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        /**
+         * Crea un proxy nuevo para este préstamo. Un proxy ya cerrado no puede volver
+         * a usarse aunque la conexión física haya sido prestada a otro hilo.
+         */
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * InvocationHandler del proxy prestado: intercepta close()/isClosed(), resuelve
+     * prepareStatement desde la StatementCache, envuelve los Statement para medirlos
+     * y delega el resto en la conexión física.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (returned ? ", devuelta" : "") + "]";
+                default:
+                    if (returned) {
+                        throw new SQLException("La conexión ya fue devuelta al pool");
+                    }
+                    Object result;
+                    if (pooled.statementCache != null && StatementCache.isCacheable(method, args)) {
+                        result = pooled.statementCache.prepare((Connection) proxy, args);
+                    } else {
+                        try {
+                            result = method.invoke(pooled.physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                    if (result instanceof Statement && MeteredStatement.activo()) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        return MeteredStatement.envolver((Statement) result, sql, (Connection) proxy);
+                    }
+                    return result;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de cada sentencia ejecutada por un DAO (lo emite MeteredStatement).
+ * En las consultas, la duración va desde la ejecución hasta cerrar el ResultSet
+ * (incluye leer y mapear las filas); en INSERT/UPDATE, es la ejecución.
+ *
+ * La entidad y la operación salen del nombre registrado en QueryMetrics:
+ * "MascotaDAO.SELECT_BY_ID" → entidad "Mascota", operación "SELECT_BY_ID".
+ */
+@Name("tpi.mascotas.DaoCall")
+@Label("Llamada a DAO")
+@Category({"TPI Mascotas", "Base de datos"})
+@Description("Sentencia SQL ejecutada por un DAO")
+@StackTrace(false)
+final class DaoCallEvent extends Event {
+    @Label("Entidad")
+    String entidad;
+
+    @Label("Operación")
+    String operacion;
+
+    @Label("Filas")
+    @Description("Filas leídas (consultas) o afectadas (INSERT/UPDATE)")
+    long filas;
+
+    @Label("Error")
+    boolean error;
+
+    /**
+     * Completa entidad y operación a partir del nombre de la sentencia.
+     */
+    void describir(String nombreSentencia) {
+        int punto = nombreSentencia.indexOf('.');
+        if (punto < 0) {
+            entidad = "";
+            operacion = nombreSentencia;
+            return;
+        }
+        String dao = nombreSentencia.substring(0, punto);
+        entidad = dao.endsWith("DAO") ? dao.substring(0, dao.length() - 3) : dao;
+        operacion = nombreSentencia.substring(punto + 1);
+    }
+}
@@ -1,12 +1,15 @@
 package Config;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * Clase utilitaria para gestionar conexiones a la base de datos MySQL.
  * Basado en el archivo original.
+ *
+ * Las conexiones se obtienen de un pool acotado (ConnectionPool): cerrar la
+ * Connection devuelta la regresa al pool en lugar de cerrar el socket.
+ * Cada préstamo emite un ConnectionAcquireEvent de JFR.
  */
 public final class DatabaseConnection {
     /** URL de conexión JDBC. Configurable via -Ddb.url */
@@ -18,6 +21,24 @@ public final class DatabaseConnection {
     /** Contraseña del usuario. Configurable via -Ddb.password */
     private static final String PASSWORD = System.getProperty("db.password", "12345");
 
+    /** Conexiones físicas mínimas que el pool mantiene abiertas. Configurable via -Ddb.pool.min */
+    private static final int POOL_MIN = Integer.getInteger("db.pool.min", 2);
+
+    /** Conexiones físicas máximas (prestadas a la vez). Configurable via -Ddb.pool.max */
+    private static final int POOL_MAX = Integer.getInteger("db.pool.max", 10);
+
+    /** Tiempo ocioso tras el cual se cierra una conexión sobrante. Configurable via -Ddb.pool.idleTimeoutMs */
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("db.pool.idleTimeoutMs", 300_000L);
+
+    /** Espera máxima por una conexión libre. Configurable via -Ddb.pool.maxWaitMs */
+    private static final long POOL_MAX_WAIT_MS = Long.getLong("db.pool.maxWaitMs", 30_000L);
+
+    /** Timeout de Connection.isValid() al prestar. Configurable via -Ddb.pool.validationTimeoutSec */
+    private static final int POOL_VALIDATION_TIMEOUT_SEC = Integer.getInteger("db.pool.validationTimeoutSec", 2);
+
+    /** PreparedStatements cacheados por conexión (0 = sin caché). Configurable via -Ddb.pool.statementCacheSize */
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("db.pool.statementCacheSize", 64);
+
     static {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
@@ -29,12 +50,47 @@ public final class DatabaseConnection {
         }
     }
 
+    private static final ConnectionPool POOL = new ConnectionPool(URL, USER, PASSWORD,
+            POOL_MIN, POOL_MAX, POOL_IDLE_TIMEOUT_MS, POOL_MAX_WAIT_MS, POOL_VALIDATION_TIMEOUT_SEC,
+            POOL_STATEMENT_CACHE_SIZE);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::close, "db-pool-shutdown"));
+    }
+
     private DatabaseConnection() {
         throw new UnsupportedOperationException("Esta es una clase utilitaria y no debe ser instanciada");
     }
 
+    /**
+     * Obtiene una conexión del pool.
+     * El caller debe cerrarla (try-with-resources o TransactionManager.close())
+     * para devolverla al pool.
+     *
+     * @return Conexión prestada por el pool
+     * @throws SQLException Si no hay conexión libre dentro de db.pool.maxWaitMs o la BD no responde
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        ConnectionAcquireEvent evento = new ConnectionAcquireEvent();
+        evento.begin();
+        try {
+            Connection conn = POOL.borrow();
+            evento.exitoso = true;
+            return conn;
+        } finally {
+            evento.commit();
+        }
+    }
+
+    /**
+     * Cantidad máxima de conexiones que el pool presta a la vez (db.pool.max).
+     * Sirve para acotar la concurrencia de quien encola trabajo contra la BD
+     * (ver Service.AsyncServiceAdapter).
+     *
+     * @return Tamaño máximo del pool
+     */
+    public static int getPoolMaxSize() {
+        return POOL_MAX;
     }
 
     private static void validateConfiguration() {
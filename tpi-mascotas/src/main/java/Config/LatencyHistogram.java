@@ -0,0 +1,136 @@
+package Config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias log-lineal (estilo HdrHistogram) con memoria fija.
+ *
+ * Cada potencia de 2 se divide en 16 sub-buckets lineales, así el error relativo de
+ * cualquier percentil es menor al 6.25% en todo el rango (de 1 ns a siglos) con solo
+ * 960 contadores. Registrar un valor es O(1) y sin locks (contadores atómicos), por lo
+ * que puede usarse desde cualquier hilo en el camino de cada consulta.
+ *
+ * Los valores se registran en nanosegundos.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Registra una medición.
+     *
+     * @param nanos Duración en nanosegundos (los negativos se registran como 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        total.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * @return Cantidad de mediciones registradas
+     */
+    public long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * @return Máximo registrado en nanosegundos (0 si no hay mediciones)
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return Promedio en nanosegundos (0 si no hay mediciones)
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Valor por debajo del cual está el porcentaje dado de las mediciones
+     * (límite superior del bucket, acotado por el máximo real).
+     *
+     * @param percentile Percentil entre 0 y 100 (ej: 99.9)
+     * @return Latencia en nanosegundos (0 si no hay mediciones)
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Borra todas las mediciones.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Resumen legible: cantidad, p50, p90, p99, p99.9 y máximo en milisegundos.
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                getCount(), ms(getValueAtPercentile(50)), ms(getValueAtPercentile(90)),
+                ms(getValueAtPercentile(99)), ms(getValueAtPercentile(99.9)), ms(getMax()));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Valores menores a 16 van a su propio bucket; el resto, al sub-bucket lineal
+     * de su potencia de 2 (los 4 bits siguientes al más significativo).
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        long lowest = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
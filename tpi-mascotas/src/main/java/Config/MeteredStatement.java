@@ -0,0 +1,166 @@
+package Config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import jdk.jfr.EventType;
+
+/**
+ * Proxy de Statement/PreparedStatement que mide cada ejecución para QueryMetrics.
+ *
+ * - execute*: mide la duración y registra las filas afectadas (update counts)
+ * - ResultSet devueltos: se envuelven en CountingResultSet para contar las filas
+ *   leídas con next(), que se registran al cerrar el ResultSet
+ * - set*(índice, valor): solo se guarda el mayor índice (cantidad de parámetros),
+ *   nunca los valores
+ * - Cada ejecución emite además un DaoCallEvent de JFR (si la grabación lo tiene habilitado)
+ *
+ * Las métricas (-Ddb.metrics) y el evento JFR son independientes: con db.metrics=false
+ * los Statement se siguen envolviendo mientras una grabación tenga habilitado el evento.
+ */
+final class MeteredStatement implements InvocationHandler {
+    private static final EventType DAO_CALL = EventType.getEventType(DaoCallEvent.class);
+
+    private final Statement target;
+    private final String sql;
+    private final Connection connectionProxy;
+    private int parametros;
+
+    private MeteredStatement(Statement target, String sql, Connection connectionProxy) {
+        this.target = target;
+        this.sql = sql;
+        this.connectionProxy = connectionProxy;
+    }
+
+    /**
+     * @return true si hay que envolver los Statement: QueryMetrics activo o una
+     *         grabación JFR con el DaoCallEvent habilitado
+     */
+    static boolean activo() {
+        return QueryMetrics.ENABLED || DAO_CALL.isEnabled();
+    }
+
+    /**
+     * @param target Statement a medir
+     * @param sql SQL del PreparedStatement (null para Statement: se toma de execute*(sql))
+     * @param connectionProxy Conexión prestada (la devuelve getConnection())
+     * @return Proxy con la misma interfaz (PreparedStatement o Statement)
+     */
+    static Statement envolver(Statement target, String sql, Connection connectionProxy) {
+        Class<?> tipo = target instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo},
+                new MeteredStatement(target, sql, connectionProxy));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String nombre = method.getName();
+        if (nombre.startsWith("execute")) {
+            return ejecutar(method, args);
+        }
+        switch (nombre) {
+            case "getConnection":
+                return connectionProxy;
+            case "getResultSet":
+                return contarFilas((ResultSet) invocar(method, args), sql, null);
+            case "clearParameters":
+                parametros = 0;
+                return invocar(method, args);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parametros = Math.max(parametros, (Integer) args[0]);
+                }
+                return invocar(method, args);
+        }
+    }
+
+    private Object ejecutar(Method method, Object[] args) throws Throwable {
+        String sentencia = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+        DaoCallEvent evento = new DaoCallEvent();
+        evento.begin();
+        long inicio = System.nanoTime();
+        Object resultado;
+        try {
+            resultado = invocar(method, args);
+        } catch (Throwable t) {
+            if (QueryMetrics.ENABLED) {
+                QueryMetrics.registrarEjecucion(sentencia, System.nanoTime() - inicio, 0, parametros, true);
+            }
+            emitir(evento, sentencia, 0, true);
+            throw t;
+        }
+        long filas = filasAfectadas(resultado);
+        if (QueryMetrics.ENABLED) {
+            QueryMetrics.registrarEjecucion(sentencia, System.nanoTime() - inicio, filas, parametros, false);
+        }
+        if (resultado instanceof ResultSet) {
+            // El evento de una consulta se emite al cerrar el ResultSet, con las filas leídas
+            return contarFilas((ResultSet) resultado, sentencia, evento);
+        }
+        emitir(evento, sentencia, filas, false);
+        return resultado;
+    }
+
+    private static void emitir(DaoCallEvent evento, String sentencia, long filas, boolean error) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.describir(QueryMetrics.nombreDe(sentencia));
+            evento.filas = filas;
+            evento.error = error;
+            evento.commit();
+        }
+    }
+
+    private Object invocar(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long filasAfectadas(Object resultado) {
+        if (resultado instanceof Integer || resultado instanceof Long) {
+            return Math.max(0, ((Number) resultado).longValue());
+        }
+        long filas = 0;
+        if (resultado instanceof int[]) {
+            for (int n : (int[]) resultado) {
+                filas += Math.max(0, n);
+            }
+        } else if (resultado instanceof long[]) {
+            for (long n : (long[]) resultado) {
+                filas += Math.max(0, n);
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Envuelve el ResultSet para contar las filas leídas y registrarlas al cerrarlo
+     * (y emitir el evento JFR de la consulta, si se recibe).
+     */
+    private static ResultSet contarFilas(ResultSet rs, String sentencia, DaoCallEvent evento) {
+        if (rs == null) {
+            return null;
+        }
+        return new CountingResultSet(rs, filas -> {
+            if (QueryMetrics.ENABLED) {
+                QueryMetrics.registrarFilas(sentencia, filas);
+            }
+            if (evento != null) {
+                emitir(evento, sentencia, filas, false);
+            }
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package Config;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de las consultas ejecutadas a través del pool de conexiones.
+ *
+ * Por cada sentencia (identificada por el nombre que registra su DAO, ej:
+ * "MascotaDAO.SELECT_BY_ID") lleva un LatencyHistogram del tiempo de ejecución,
+ * las filas devueltas/afectadas y los errores. Además mide cuánto se espera por
+ * una conexión del pool.
+ *
+ * Las mediciones las hace el pool (MeteredStatement envuelve cada Statement que presta),
+ * así los DAO no necesitan código de medición: solo registran los nombres de sus SQL
+ * en un bloque static. Un SQL no registrado se reporta por su texto.
+ *
+ * Consultas lentas: toda ejecución que supere db.slowQueryMs se informa por System.err
+ * con el nombre, el SQL parametrizado y la CANTIDAD de parámetros; los valores nunca
+ * se registran (pueden contener datos personales).
+ */
+public final class QueryMetrics {
+    /** Medición activa. Configurable via -Ddb.metrics (true/false) */
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("db.metrics", "true"));
+
+    /** Umbral de consulta lenta en ms (0 = informar todas, negativo = nunca). Configurable via -Ddb.slowQueryMs */
+    private static final long SLOW_QUERY_MS = Long.getLong("db.slowQueryMs", 500L);
+
+    private static final long SLOW_QUERY_NANOS = SLOW_QUERY_MS < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(SLOW_QUERY_MS);
+
+    /** Largo máximo del SQL usado como nombre cuando la sentencia no está registrada. */
+    private static final int MAX_NOMBRE_SQL = 80;
+
+    private static final Map<String, String> NOMBRES = new ConcurrentHashMap<>();
+    private static final Map<String, Estadisticas> ESTADISTICAS = new ConcurrentHashMap<>();
+    private static final LatencyHistogram ESPERA_CONEXION = new LatencyHistogram();
+
+    private QueryMetrics() {
+        throw new UnsupportedOperationException("Esta es una clase utilitaria y no debe ser instanciada");
+    }
+
+    /**
+     * Asocia un nombre legible a un SQL. Lo llaman los DAO para sus constantes.
+     *
+     * @param nombre Nombre de la sentencia (ej: "MascotaDAO.SELECT_BY_ID")
+     * @param sql Texto exacto del SQL que se pasa a prepareStatement/executeQuery
+     */
+    public static void registrar(String nombre, String sql) {
+        NOMBRES.put(sql, nombre);
+    }
+
+    /**
+     * @return Copia de las estadísticas por nombre de sentencia, ordenadas por nombre
+     */
+    public static Map<String, Estadisticas> getEstadisticas() {
+        return new TreeMap<>(ESTADISTICAS);
+    }
+
+    /**
+     * @return Histograma del tiempo de espera por una conexión del pool
+     */
+    public static LatencyHistogram getEsperaConexion() {
+        return ESPERA_CONEXION;
+    }
+
+    /**
+     * Borra todas las mediciones (los nombres registrados se conservan).
+     */
+    public static void reiniciar() {
+        ESTADISTICAS.clear();
+        ESPERA_CONEXION.reset();
+    }
+
+    /**
+     * @return Reporte de texto con una línea por sentencia más la espera por conexión
+     */
+    public static String resumen() {
+        StringBuilder sb = new StringBuilder("Espera por conexión: ").append(ESPERA_CONEXION);
+        getEstadisticas().forEach((nombre, est) -> sb.append(System.lineSeparator())
+                .append(nombre).append(": ").append(est));
+        return sb.toString();
+    }
+
+    static String nombreDe(String sql) {
+        if (sql == null) {
+            return "(sin SQL)";
+        }
+        String nombre = NOMBRES.get(sql);
+        if (nombre != null) {
+            return nombre;
+        }
+        return sql.length() <= MAX_NOMBRE_SQL ? sql : sql.substring(0, MAX_NOMBRE_SQL) + "...";
+    }
+
+    static void registrarEsperaConexion(long nanos) {
+        ESPERA_CONEXION.record(nanos);
+    }
+
+    /**
+     * Registra una ejecución (executeQuery/executeUpdate/executeBatch/execute).
+     *
+     * @param sql SQL ejecutado
+     * @param nanos Duración de la llamada
+     * @param filas Filas afectadas (0 para consultas: las filas leídas llegan con registrarFilas)
+     * @param parametros Cantidad de parámetros enlazados (solo se informa el número)
+     * @param error true si la ejecución lanzó una excepción
+     */
+    static void registrarEjecucion(String sql, long nanos, long filas, int parametros, boolean error) {
+        String nombre = nombreDe(sql);
+        Estadisticas est = ESTADISTICAS.computeIfAbsent(nombre, n -> new Estadisticas());
+        est.latencia.record(nanos);
+        est.filas.add(filas);
+        if (error) {
+            est.errores.increment();
+        }
+        if (nanos >= SLOW_QUERY_NANOS) {
+            System.err.printf("[CONSULTA LENTA] %s: %.1f ms%s, %d parámetro(s) [valores ocultos] - %s%n",
+                    nombre, nanos / 1_000_000.0, error ? " (con error)" : "", parametros, sql);
+        }
+    }
+
+    /**
+     * Suma las filas leídas de un ResultSet (se llama al cerrarlo).
+     */
+    static void registrarFilas(String sql, long filas) {
+        ESTADISTICAS.computeIfAbsent(nombreDe(sql), n -> new Estadisticas()).filas.add(filas);
+    }
+
+    /**
+     * Estadísticas acumuladas de una sentencia.
+     */
+    public static final class Estadisticas {
+        private final LatencyHistogram latencia = new LatencyHistogram();
+        private final LongAdder filas = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+
+        /**
+         * @return Histograma del tiempo de ejecución
+         */
+        public LatencyHistogram getLatencia() {
+            return latencia;
+        }
+
+        /**
+         * @return Filas devueltas (consultas) o afectadas (INSERT/UPDATE) en total
+         */
+        public long getFilas() {
+            return filas.sum();
+        }
+
+        /**
+         * @return Ejecuciones que terminaron con excepción
+         */
+        public long getErrores() {
+            return errores.sum();
+        }
+
+        @Override
+        public String toString() {
+            return latencia + " filas=" + getFilas() + " errores=" + getErrores();
+        }
+    }
+}
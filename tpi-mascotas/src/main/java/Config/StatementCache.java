@@ -0,0 +1,187 @@
+package Config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché LRU de PreparedStatements de una conexión física del pool, con clave = SQL.
+ *
+ * Los DAO hacen conn.prepareStatement(SQL_CONSTANTE) en cada llamada y lo cierran con
+ * try-with-resources. Con esta caché, el close() del statement no lo cierra: limpia sus
+ * parámetros y lo deja disponible para el próximo prepareStatement con el mismo SQL en
+ * la misma conexión física, evitando volver a parsearlo/prepararlo (cliente y servidor,
+ * ya que el pool abre las conexiones con useServerPrepStmts=true).
+ *
+ * Solo se cachean prepareStatement(sql) y prepareStatement(sql, autoGeneratedKeys).
+ * Si el statement cacheado ya está en uso (dos prepares del mismo SQL sin cerrar el
+ * primero), se entrega uno nuevo sin cachear. NO es thread-safe: una conexión física
+ * la usa un solo hilo a la vez (el que la tiene prestada).
+ */
+final class StatementCache {
+    private final Connection physical;
+    private final int maxSize;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    eldest.getValue().evict();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Indica si una llamada a Connection puede resolverse desde la caché.
+     */
+    static boolean isCacheable(Method method, Object[] args) {
+        if (!"prepareStatement".equals(method.getName()) || args == null) {
+            return false;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        return types.length == 1 || (types.length == 2 && types[1] == int.class);
+    }
+
+    /**
+     * Devuelve un PreparedStatement para el SQL dado, reutilizando el cacheado si está libre.
+     *
+     * @param connectionProxy Proxy de la conexión prestada (lo devuelve getConnection())
+     * @param args Argumentos de prepareStatement (sql [, autoGeneratedKeys])
+     */
+    PreparedStatement prepare(Connection connectionProxy, Object[] args) throws SQLException {
+        String sql = (String) args[0];
+        int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+        String key = autoGeneratedKeys + ":" + sql;
+
+        CachedStatement cached = statements.get(key);
+        if (cached != null && cached.inUse) {
+            return physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+        if (cached == null) {
+            cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+            statements.put(key, cached);
+        }
+        cached.inUse = true;
+        return cached.checkout(connectionProxy);
+    }
+
+    /**
+     * Cierra todos los statements cacheados (al descartar la conexión física).
+     */
+    void closeAll() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        statements.clear();
+        all.forEach(CachedStatement::evict);
+    }
+
+    /**
+     * PreparedStatement físico cacheado.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkout(Connection connectionProxy) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new CheckoutHandler(this, connectionProxy));
+        }
+
+        /**
+         * El caller cerró el statement: se limpia para el próximo uso
+         * (o se cierra de verdad si fue desalojado mientras estaba en uso).
+         */
+        private void release() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                statement.close();
+                return;
+            }
+            // Deja el statement como recién preparado para el próximo prepareStatement
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.setFetchSize(0);
+        }
+
+        /**
+         * Sale de la caché: se cierra ya, o al liberarse si está en uso.
+         */
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar un statement cacheado: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * InvocationHandler del statement entregado al caller: close() lo devuelve a la caché.
+     */
+    private static final class CheckoutHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection connectionProxy;
+        private boolean closed;
+
+        private CheckoutHandler(CachedStatement cached, Connection connectionProxy) {
+            this.cached = cached;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("El statement ya fue cerrado");
+                    }
+                    try {
+                        return method.invoke(cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
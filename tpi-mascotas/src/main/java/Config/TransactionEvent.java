@@ -0,0 +1,23 @@
+package Config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una transacción de TransactionManager: empieza en startTransaction()
+ * y termina en commit() o rollback() (explícito o al cerrar sin commit).
+ */
+@Name("tpi.mascotas.Transaction")
+@Label("Transacción")
+@Category({"TPI Mascotas", "Base de datos"})
+@Description("Transacción desde startTransaction hasta commit o rollback")
+@StackTrace(false)
+final class TransactionEvent extends Event {
+    @Label("Resultado")
+    @Description("COMMIT, ROLLBACK o ERROR (falló el commit)")
+    String resultado;
+}
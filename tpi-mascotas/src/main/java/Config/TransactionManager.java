@@ -7,6 +7,9 @@ public class TransactionManager implements AutoCloseable {
     private Connection conn;
     private boolean transactionActive;
 
+    /** Evento JFR de la transacción en curso (null si no hay transacción activa). */
+    private TransactionEvent evento;
+
     public TransactionManager(Connection conn) throws SQLException {
         if (conn == null) {
             throw new IllegalArgumentException("La conexión no puede ser null");
@@ -28,6 +31,8 @@ public class TransactionManager implements AutoCloseable {
         }
         conn.setAutoCommit(false);
         transactionActive = true;
+        evento = new TransactionEvent();
+        evento.begin();
     }
 
     public void commit() throws SQLException {
@@ -37,8 +42,14 @@ public class TransactionManager implements AutoCloseable {
         if (!transactionActive) {
             throw new SQLException("No hay una transacción activa para hacer commit");
         }
-        conn.commit();
+        try {
+            conn.commit();
+        } catch (SQLException e) {
+            emitirEvento("ERROR");
+            throw e;
+        }
         transactionActive = false;
+        emitirEvento("COMMIT");
     }
 
     public void rollback() {
@@ -46,6 +57,7 @@ public class TransactionManager implements AutoCloseable {
             try {
                 conn.rollback();
                 transactionActive = false;
+                emitirEvento("ROLLBACK");
             } catch (SQLException e) {
                 System.err.println("Error durante el rollback: " + e.getMessage());
             }
@@ -60,6 +72,7 @@ public class TransactionManager implements AutoCloseable {
                     rollback();
                 }
                 conn.setAutoCommit(true);
+                // Con el pool de DatabaseConnection, close() devuelve la conexión al pool
                 conn.close();
             } catch (SQLException e) {
                 System.err.println("Error al cerrar la conexión: " + e.getMessage());
@@ -70,4 +83,12 @@ public class TransactionManager implements AutoCloseable {
     public boolean isTransactionActive() {
         return transactionActive;
     }
+
+    private void emitirEvento(String resultado) {
+        if (evento != null) {
+            evento.resultado = resultado;
+            evento.commit();
+            evento = null;
+        }
+    }
 }
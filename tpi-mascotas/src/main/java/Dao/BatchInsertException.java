@@ -0,0 +1,31 @@
+package Dao;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Excepción lanzada cuando falla una inserción por lotes (insertarBatch / insertarBatchTx).
+ * Informa qué filas de la lista original no se pudieron insertar.
+ *
+ * Los índices son 0-based y se refieren a la posición de la entidad en la
+ * lista recibida por insertarBatch, no al número de lote.
+ */
+public class BatchInsertException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    /** Índices (0-based) de las entidades que fallaron o no llegaron a ejecutarse. */
+    private final List<Integer> filasFallidas;
+
+    public BatchInsertException(String mensaje, List<Integer> filasFallidas, SQLException causa) {
+        super(mensaje, causa.getSQLState(), causa.getErrorCode(), causa);
+        this.filasFallidas = Collections.unmodifiableList(filasFallidas);
+    }
+
+    /**
+     * @return Índices (0-based) de las filas fallidas, en orden ascendente
+     */
+    public List<Integer> getFilasFallidas() {
+        return filasFallidas;
+    }
+}
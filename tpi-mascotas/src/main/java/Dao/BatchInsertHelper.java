@@ -0,0 +1,105 @@
+package Dao;
+
+import Models.Base;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lógica compartida de inserción por lotes (addBatch/executeBatch) para los DAO.
+ *
+ * Divide la lista en lotes de tamaño fijo, ejecuta cada lote en la conexión recibida
+ * y asigna a cada entidad el ID autogenerado, en el mismo orden en que se insertó.
+ * NO maneja la transacción: eso es responsabilidad del caller.
+ */
+final class BatchInsertHelper {
+    /** Tamaño de lote por defecto. Configurable via -Ddb.batch.size */
+    static final int DEFAULT_BATCH_SIZE = Integer.getInteger("db.batch.size", 1000);
+
+    /**
+     * Setea los parámetros de una entidad en el PreparedStatement del INSERT.
+     */
+    @FunctionalInterface
+    interface ParameterSetter<T> {
+        void set(PreparedStatement stmt, T entidad) throws SQLException;
+    }
+
+    private BatchInsertHelper() {
+        throw new UnsupportedOperationException("Esta es una clase utilitaria y no debe ser instanciada");
+    }
+
+    /**
+     * Inserta las entidades en lotes de batchSize filas.
+     *
+     * @param conn Conexión (NO se cierra en este método)
+     * @param sql INSERT parametrizado
+     * @param entidades Entidades a insertar (su id se sobrescribe con el generado)
+     * @param batchSize Cantidad de filas por executeBatch
+     * @param setter Función que setea los parámetros de una entidad
+     * @param nombreEntidad Nombre usado en los mensajes de error
+     * @throws BatchInsertException Si falla algún lote (indica las filas fallidas)
+     * @throws SQLException Si hay otro error de BD
+     */
+    static <T extends Base> void insertar(Connection conn, String sql, List<T> entidades, int batchSize,
+                                          ParameterSetter<T> setter, String nombreEntidad) throws SQLException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a 0");
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int desde = 0; desde < entidades.size(); desde += batchSize) {
+                List<T> lote = entidades.subList(desde, Math.min(desde + batchSize, entidades.size()));
+                for (T entidad : lote) {
+                    setter.set(stmt, entidad);
+                    stmt.addBatch();
+                }
+
+                try {
+                    stmt.executeBatch();
+                } catch (BatchUpdateException e) {
+                    List<Integer> fallidas = filasFallidas(e.getUpdateCounts(), desde, lote.size());
+                    throw new BatchInsertException("Falló la inserción por lotes de " + nombreEntidad + " en "
+                            + fallidas.size() + " fila(s): " + e.getMessage(), fallidas, e);
+                }
+
+                setGeneratedIds(stmt, lote, nombreEntidad);
+            }
+        }
+    }
+
+    /**
+     * Traduce los updateCounts de un BatchUpdateException a índices de la lista original.
+     * Las filas marcadas EXECUTE_FAILED y las que no llegaron a ejecutarse se consideran fallidas.
+     */
+    private static List<Integer> filasFallidas(int[] updateCounts, int offset, int tamanoLote) {
+        List<Integer> fallidas = new ArrayList<>();
+        for (int i = 0; i < tamanoLote; i++) {
+            if (updateCounts == null || i >= updateCounts.length || updateCounts[i] == Statement.EXECUTE_FAILED) {
+                fallidas.add(offset + i);
+            }
+        }
+        return fallidas;
+    }
+
+    /**
+     * Asigna los IDs autogenerados de un lote, en orden de inserción.
+     */
+    private static <T extends Base> void setGeneratedIds(PreparedStatement stmt, List<T> lote, String nombreEntidad)
+            throws SQLException {
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            for (T entidad : lote) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("La inserción por lotes de " + nombreEntidad
+                            + " falló, no se obtuvieron todos los IDs generados");
+                }
+                entidad.setId(generatedKeys.getInt(1));
+            }
+        }
+    }
+}
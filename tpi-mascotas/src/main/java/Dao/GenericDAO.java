@@ -1,7 +1,10 @@
 package Dao;
 
 import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface GenericDAO<T> {
     // Esta es una interfaz genérica que define métodos comunes para trabajar con cualquier entidad.
@@ -9,9 +12,15 @@ public interface GenericDAO<T> {
 
     void insertar(T entidad) throws Exception;
     void insertTx(T entidad, Connection conn) throws Exception;
+    void insertarBatch(List<T> entidades) throws Exception;
+    void insertarBatchTx(List<T> entidades, Connection conn) throws Exception;
     void actualizar(T entidad)throws Exception;
     void eliminar(int id)throws Exception;
     T getById(int id)throws Exception;
+    Map<Integer, T> getByIds(Collection<Integer> ids) throws Exception;
     List<T> getAll()throws Exception;
+    Stream<T> streamAll() throws Exception;
+    long recorrerFilas(VisitanteFilas visitante) throws Exception;
+    List<T> getPage(int afterId, int limit) throws Exception;
 
 }
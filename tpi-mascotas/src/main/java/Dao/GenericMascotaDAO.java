@@ -0,0 +1,20 @@
+package Dao;
+
+import Models.Mascota;
+
+import java.util.List;
+
+/**
+ * Operaciones de persistencia de mascotas que van más allá del CRUD genérico.
+ * La implementan MascotaDAO (MySQL) e InMemoryMascotaDAO (almacén en memoria),
+ * y es el tipo del que depende MascotaServiceImpl.
+ */
+public interface GenericMascotaDAO extends GenericDAO<Mascota> {
+    void insertarConMicrochip(Mascota mascota) throws Exception;
+    void insertarBatchConMicrochip(List<Mascota> mascotas) throws Exception;
+    boolean eliminarMicrochipDeMascota(int mascotaId, int microchipId) throws Exception;
+    List<Mascota> buscarPorNombreEspecie(String filtro) throws Exception;
+    Mascota buscarPorCodigoTag(String codigoTag) throws Exception;
+    List<Mascota> buscarPorCodigoChip(String codigoChip) throws Exception;
+    List<Mascota> getMascotasByMicrochipId(int microchipId) throws Exception;
+}
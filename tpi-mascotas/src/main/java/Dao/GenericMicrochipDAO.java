@@ -0,0 +1,12 @@
+package Dao;
+
+import Models.Microchip;
+
+/**
+ * Operaciones de persistencia de microchips que van más allá del CRUD genérico.
+ * La implementan MicrochipDAO (MySQL) e InMemoryMicrochipDAO (almacén en memoria),
+ * y es el tipo del que depende MicrochipServiceImpl.
+ */
+public interface GenericMicrochipDAO extends GenericDAO<Microchip> {
+    Microchip buscarPorCodigoChip(String codigoChip) throws Exception;
+}
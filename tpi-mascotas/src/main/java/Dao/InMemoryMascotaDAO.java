@@ -0,0 +1,156 @@
+package Dao;
+
+import Models.Mascota;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de GenericMascotaDAO sobre InMemoryStore (sin BD).
+ * Misma semántica que MascotaDAO: soft delete, UNIQUE de codigo_tag (SQLState 23000 /
+ * error 1062, que MascotaServiceImpl traduce igual), microchip resuelto como en el
+ * LEFT JOIN, búsqueda por nombre/especie equivalente a LIKE '%filtro%' y las mismas
+ * validaciones de argumentos (IllegalArgumentException). Las comparaciones aproximan la
+ * collation de MySQL (ver InMemoryStore).
+ *
+ * getById y buscarPorCodigoTag son búsquedas en índices en memoria (sin I/O), por lo que
+ * sirve también para medir el costo de la capa Service aislado de JDBC.
+ *
+ * Las variantes *Tx ignoran la Connection recibida (puede ser null): el almacén no
+ * participa de transacciones JDBC, cada operación es atómica por sí misma.
+ */
+public class InMemoryMascotaDAO implements GenericMascotaDAO {
+    /** Mismas columnas que la exportación de MascotaDAO. */
+    private static final String[] EXPORT_COLUMNS = {"id", "nombre", "especie", "codigo_tag", "microchip_id", "codigo_chip", "marca"};
+
+    private final InMemoryStore store;
+
+    /**
+     * @param store Almacén compartido con InMemoryMicrochipDAO
+     * @throws IllegalArgumentException si store es null
+     */
+    public InMemoryMascotaDAO(InMemoryStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("InMemoryStore no puede ser null");
+        }
+        this.store = store;
+    }
+
+    @Override
+    public void insertar(Mascota mascota) throws SQLException {
+        store.insertarMascota(mascota);
+    }
+
+    @Override
+    public void insertTx(Mascota mascota, Connection conn) throws SQLException {
+        store.insertarMascota(mascota);
+    }
+
+    @Override
+    public void insertarConMicrochip(Mascota mascota) throws SQLException {
+        store.insertarMascotaConMicrochip(mascota);
+    }
+
+    @Override
+    public void insertarBatchConMicrochip(List<Mascota> mascotas) throws SQLException {
+        store.insertarMascotasConMicrochip(mascotas);
+    }
+
+    @Override
+    public void insertarBatch(List<Mascota> mascotas) throws SQLException {
+        store.insertarMascotas(mascotas);
+    }
+
+    @Override
+    public void insertarBatchTx(List<Mascota> mascotas, Connection conn) throws SQLException {
+        store.insertarMascotas(mascotas);
+    }
+
+    @Override
+    public void actualizar(Mascota mascota) throws SQLException {
+        store.actualizarMascota(mascota);
+    }
+
+    @Override
+    public void eliminar(int id) throws SQLException {
+        store.eliminarMascota(id);
+    }
+
+    @Override
+    public boolean eliminarMicrochipDeMascota(int mascotaId, int microchipId) throws SQLException {
+        return store.eliminarMicrochipDeMascota(mascotaId, microchipId);
+    }
+
+    @Override
+    public Mascota getById(int id) {
+        return store.getMascota(id);
+    }
+
+    @Override
+    public Map<Integer, Mascota> getByIds(Collection<Integer> ids) {
+        return store.getMascotas(ids);
+    }
+
+    @Override
+    public List<Mascota> getAll() {
+        return store.getMascotas();
+    }
+
+    @Override
+    public Stream<Mascota> streamAll() {
+        return store.getMascotas().stream();
+    }
+
+    @Override
+    public long recorrerFilas(VisitanteFilas visitante) throws IOException {
+        return store.recorrerMascotas(EXPORT_COLUMNS, visitante);
+    }
+
+    @Override
+    public List<Mascota> getPage(int afterId, int limit) {
+        return store.getMascotasPagina(afterId, limit);
+    }
+
+    /**
+     * @throws IllegalArgumentException Si el filtro está vacío
+     */
+    @Override
+    public List<Mascota> buscarPorNombreEspecie(String filtro) {
+        if (filtro == null || filtro.trim().isEmpty()) {
+            throw new IllegalArgumentException("El filtro de búsqueda no puede estar vacío");
+        }
+        return store.buscarMascotas(filtro);
+    }
+
+    /**
+     * @throws IllegalArgumentException Si el CodigoTag está vacío
+     */
+    @Override
+    public Mascota buscarPorCodigoTag(String codigoTag) {
+        if (codigoTag == null || codigoTag.trim().isEmpty()) {
+            throw new IllegalArgumentException("El CodigoTag no puede estar vacío");
+        }
+        return store.getMascotaPorTag(codigoTag.trim());
+    }
+
+    /**
+     * @throws IllegalArgumentException Si el código está vacío
+     */
+    @Override
+    public List<Mascota> buscarPorCodigoChip(String codigoChip) {
+        if (codigoChip == null || codigoChip.trim().isEmpty()) {
+            throw new IllegalArgumentException("El código del microchip no puede estar vacío");
+        }
+        return store.buscarMascotasPorCodigoChip(codigoChip.trim());
+    }
+
+    @Override
+    public List<Mascota> getMascotasByMicrochipId(int microchipId) {
+        return store.getMascotasPorMicrochip(microchipId);
+    }
+}
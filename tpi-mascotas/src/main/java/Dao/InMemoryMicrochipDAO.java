@@ -0,0 +1,119 @@
+package Dao;
+
+import Models.Microchip;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de GenericMicrochipDAO sobre InMemoryStore (sin BD).
+ * Misma semántica que MicrochipDAO: soft delete, solo lecturas de microchips activos,
+ * errores como SQLException con los mismos mensajes.
+ *
+ * Las variantes *Tx ignoran la Connection recibida (puede ser null): el almacén no
+ * participa de transacciones JDBC, cada operación es atómica por sí misma.
+ */
+public class InMemoryMicrochipDAO implements GenericMicrochipDAO {
+    /** Mismas columnas que la exportación de MicrochipDAO. */
+    private static final String[] EXPORT_COLUMNS = {"id", "codigo_chip", "marca"};
+
+    private final InMemoryStore store;
+
+    /**
+     * @param store Almacén compartido con InMemoryMascotaDAO
+     * @throws IllegalArgumentException si store es null
+     */
+    public InMemoryMicrochipDAO(InMemoryStore store) {
+        if (store == null) {
+            throw new IllegalArgumentException("InMemoryStore no puede ser null");
+        }
+        this.store = store;
+    }
+
+    @Override
+    public void insertar(Microchip microchip) throws SQLException {
+        store.insertarMicrochip(microchip);
+    }
+
+    @Override
+    public void insertTx(Microchip microchip, Connection conn) throws SQLException {
+        store.insertarMicrochip(microchip);
+    }
+
+    @Override
+    public void insertarBatch(List<Microchip> microchips) throws SQLException {
+        store.insertarMicrochips(microchips);
+    }
+
+    @Override
+    public void insertarBatchTx(List<Microchip> microchips, Connection conn) throws SQLException {
+        store.insertarMicrochips(microchips);
+    }
+
+    @Override
+    public void actualizar(Microchip microchip) throws SQLException {
+        store.actualizarMicrochip(microchip);
+    }
+
+    @Override
+    public void eliminar(int id) throws SQLException {
+        store.eliminarMicrochip(id);
+    }
+
+    @Override
+    public Microchip getById(int id) {
+        return store.getMicrochip(id);
+    }
+
+    @Override
+    public Map<Integer, Microchip> getByIds(Collection<Integer> ids) {
+        Map<Integer, Microchip> resultado = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            Microchip microchip = id == null ? null : store.getMicrochip(id);
+            if (microchip != null) {
+                resultado.putIfAbsent(id, microchip);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Búsqueda por codigo_chip: los códigos ISO de 15 dígitos se resuelven con el
+     * índice por long de InMemoryStore.
+     *
+     * @throws IllegalArgumentException Si el código está vacío
+     */
+    @Override
+    public Microchip buscarPorCodigoChip(String codigoChip) {
+        if (codigoChip == null || codigoChip.trim().isEmpty()) {
+            throw new IllegalArgumentException("El código del microchip no puede estar vacío");
+        }
+        return store.getMicrochipPorCodigo(codigoChip.trim());
+    }
+
+    @Override
+    public List<Microchip> getAll() {
+        return store.getMicrochips();
+    }
+
+    @Override
+    public Stream<Microchip> streamAll() {
+        return store.getMicrochips().stream();
+    }
+
+    @Override
+    public long recorrerFilas(VisitanteFilas visitante) throws IOException {
+        return store.recorrerMicrochips(EXPORT_COLUMNS, visitante);
+    }
+
+    @Override
+    public List<Microchip> getPage(int afterId, int limit) {
+        return store.getMicrochipsPagina(afterId, limit);
+    }
+}
@@ -0,0 +1,884 @@
+package Dao;
+
+import Models.CodigoChip;
+import Models.Mascota;
+import Models.Microchip;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Almacén en memoria que reemplaza a MySQL (tablas mascotas y microchips) para demos,
+ * pruebas y benchmarks sin BD. Lo usan InMemoryMascotaDAO e InMemoryMicrochipDAO.
+ *
+ * Reproduce la semántica del esquema del README:
+ * - IDs autoincrementales por tabla
+ * - Soft delete: las filas eliminadas se conservan y las lecturas las filtran
+ * - UNIQUE de codigo_tag sobre TODAS las filas (también las eliminadas) y sin distinguir
+ *   mayúsculas ni acentos, como la collation por defecto de MySQL (utf8mb4_0900_ai_ci);
+ *   la violación se informa con SQLState 23000 / error 1062, igual que el driver
+ * - Búsqueda por nombre/especie con los comodines de LIKE (% y _, \ como escape)
+ *
+ * La collation se aproxima quitando los acentos con la descomposición NFKD de Unicode:
+ * las demás equivalencias de MySQL (ej: "ß" = "ss", "æ" = "ae") no se reproducen.
+ * - FK mascotas.microchip_id → microchips.id (error 1452 si el microchip no existe)
+ * - LEFT JOIN: la mascota leída trae su microchip aunque esté eliminado
+ *
+ * Índices: ConcurrentSkipListMap por id (mascotas y microchips, ordenado como la PK:
+ * los recorridos salen por id y getPage es un tailMap, sin ordenar), ConcurrentHashMap
+ * por codigo_tag y por microchip_id (índice inverso de la FK), y un LongIntHashMap
+ * (sin boxing) de codigo_chip numérico → id de microchip activo.
+ * Las lecturas no toman locks; las escrituras se serializan con un lock único, validan
+ * todo antes de modificar y reemplazan filas completas, así cada operación compuesta
+ * (ej: mascota + microchip) es atómica y una lectura nunca ve una fila a medio escribir.
+ * Las filas guardadas y las devueltas son copias: el caller no puede modificar el almacén.
+ *
+ * Persistencia opcional (constructor con directorio): cada escritura se registra en el
+ * write-ahead log de StoreJournal ANTES de aplicarse en memoria, y al arrancar se
+ * recupera el estado desde el último snapshot más el log.
+ */
+public class InMemoryStore implements AutoCloseable {
+    private static final String SQLSTATE_INTEGRITY_VIOLATION = "23000";
+    private static final int MYSQL_ERROR_DUPLICATE_ENTRY = 1062;
+    private static final int MYSQL_ERROR_FOREIGN_KEY = 1452;
+
+    /** Marcas diacríticas que deja la descomposición NFKD (los acentos). */
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    /** Filas de mascotas por id. El microchip de cada fila solo lleva el id (la FK). */
+    private final ConcurrentNavigableMap<Integer, Mascota> mascotas = new ConcurrentSkipListMap<>();
+
+    /** Índice UNIQUE codigo_tag (normalizado) → id de mascota. */
+    private final Map<String, Integer> mascotaIdPorTag = new ConcurrentHashMap<>();
+
+    /** Índice de la FK microchip_id → ids de las mascotas activas que apuntan a ese microchip. */
+    private final Map<Integer, Set<Integer>> mascotaIdsPorMicrochip = new ConcurrentHashMap<>();
+
+    /** Filas de microchips por id. */
+    private final ConcurrentNavigableMap<Integer, Microchip> microchips = new ConcurrentSkipListMap<>();
+
+    /**
+     * Índice codigo_chip numérico (CodigoChip) → id del microchip activo con ese código.
+     * codigo_chip no es UNIQUE: si varios microchips activos comparten el código, la
+     * entrada vale VARIOS_MICROCHIPS y la búsqueda recorre la tabla. Los códigos no
+     * numéricos no se indexan.
+     */
+    private final LongIntHashMap microchipIdPorCodigo = new LongIntHashMap(1024);
+    private static final int VARIOS_MICROCHIPS = -1;
+
+    /** Lock de escritura: serializa las modificaciones. */
+    private final Object escritura = new Object();
+
+    /** Log + snapshot en disco, o null si el almacén es solo en memoria. */
+    private final StoreJournal journal;
+
+    /** Último id usado por tabla (AUTO_INCREMENT). Protegidos por escritura. */
+    private int ultimoIdMascota;
+    private int ultimoIdMicrochip;
+
+    /**
+     * Crea un almacén vacío, solo en memoria (los datos se pierden al terminar).
+     */
+    public InMemoryStore() {
+        this.journal = null;
+    }
+
+    /**
+     * Crea un almacén persistente en el directorio dado (se crea si no existe),
+     * recuperando los datos de una ejecución anterior.
+     *
+     * @param directorio Directorio del snapshot y del write-ahead log
+     * @throws IOException Si no se puede leer o crear el directorio/los archivos
+     */
+    public InMemoryStore(Path directorio) throws IOException {
+        this.journal = new StoreJournal(directorio);
+        synchronized (escritura) {
+            journal.cargar(this::aplicar);
+        }
+    }
+
+    /**
+     * Cierra el log. Si hay entradas sin compactar, antes escribe un snapshot
+     * para que el próximo arranque no tenga que reproducirlas.
+     */
+    @Override
+    public void close() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        synchronized (escritura) {
+            if (journal.getEntradasPendientes() > 0) {
+                journal.compactar(microchips.values(), mascotas.values());
+            }
+            journal.close();
+        }
+    }
+
+    // ==================== Microchips ====================
+
+    /**
+     * Inserta un microchip y le asigna el id generado.
+     *
+     * @throws SQLException Si no se puede registrar en el log
+     */
+    void insertarMicrochip(Microchip microchip) throws SQLException {
+        insertarMicrochips(List.of(microchip));
+    }
+
+    /**
+     * Inserta varios microchips de forma atómica, asignando los ids generados en orden.
+     *
+     * @throws SQLException Si no se puede registrar en el log
+     */
+    void insertarMicrochips(List<Microchip> lista) throws SQLException {
+        synchronized (escritura) {
+            List<Microchip> filas = new ArrayList<>(lista.size());
+            for (Microchip microchip : lista) {
+                Microchip fila = copiar(microchip);
+                fila.setId(ultimoIdMicrochip + filas.size() + 1);
+                fila.setEliminado(false);
+                filas.add(fila);
+            }
+            confirmar(filas, List.of());
+            for (int i = 0; i < lista.size(); i++) {
+                lista.get(i).setId(filas.get(i).getId());
+            }
+        }
+    }
+
+    /**
+     * Actualiza codigo_chip y marca (también de microchips eliminados, como el UPDATE por id).
+     *
+     * @throws SQLException Si no existe un microchip con ese id
+     */
+    void actualizarMicrochip(Microchip microchip) throws SQLException {
+        synchronized (escritura) {
+            confirmar(List.of(filaActualizada(microchip)), List.of());
+        }
+    }
+
+    /**
+     * Soft delete de un microchip. NO verifica mascotas asociadas (igual que MicrochipDAO).
+     *
+     * @throws SQLException Si no existe un microchip con ese id
+     */
+    void eliminarMicrochip(int id) throws SQLException {
+        synchronized (escritura) {
+            Microchip actual = microchips.get(id);
+            if (actual == null) {
+                throw new SQLException("No se encontró microchip con ID: " + id);
+            }
+            Microchip eliminado = copiar(actual);
+            eliminado.setEliminado(true);
+            confirmar(List.of(eliminado), List.of());
+        }
+    }
+
+    /**
+     * @return Copia del microchip activo con ese id, o null
+     */
+    Microchip getMicrochip(int id) {
+        Microchip microchip = microchips.get(id);
+        return microchip == null || microchip.isEliminado() ? null : copiar(microchip);
+    }
+
+    /**
+     * Búsqueda por codigo_chip exacto. Los códigos ISO de 15 dígitos se resuelven con el
+     * índice por long (sin recorrer la tabla); el resto, recorriendo los microchips
+     * (sin distinguir mayúsculas, como la collation de MySQL).
+     *
+     * @return Copia del microchip activo con ese código (el de menor id si hay varios), o null
+     */
+    Microchip getMicrochipPorCodigo(String codigoChip) {
+        Set<Integer> ids = idsMicrochipPorCodigo(codigoChip);
+        return ids.isEmpty() ? null : getMicrochip(ids.stream().min(Integer::compare).get());
+    }
+
+    /**
+     * Ids de los microchips activos con ese codigo_chip exacto. Los códigos ISO de 15
+     * dígitos se resuelven con el índice; el resto (y los códigos compartidos por varios
+     * microchips), recorriendo los microchips sin distinguir mayúsculas. El recorrido
+     * compara los códigos numéricos como long.
+     */
+    private Set<Integer> idsMicrochipPorCodigo(String codigoChip) {
+        if (codigoChip == null) {
+            return Set.of();
+        }
+        long codigo = CodigoChip.parse(codigoChip);
+        if (codigo != CodigoChip.NO_NUMERICO) {
+            int id = microchipIdPorCodigo.get(codigo);
+            if (id == LongIntHashMap.AUSENTE) {
+                return Set.of();
+            }
+            if (id != VARIOS_MICROCHIPS) {
+                return Set.of(id);
+            }
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Microchip fila : microchips.values()) {
+            if (fila.isEliminado() || fila.getCodigoNumerico() != codigo) {
+                continue;
+            }
+            // Ambos numéricos e iguales, o ambos no numéricos (getCodigoChip no crea un String)
+            if (codigo != CodigoChip.NO_NUMERICO || codigoChip.equalsIgnoreCase(fila.getCodigoChip())) {
+                ids.add(fila.getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return Copias de los microchips activos, ordenados por id
+     */
+    List<Microchip> getMicrochips() {
+        return microchips.values().stream()
+                .filter(m -> !m.isEliminado())
+                .map(InMemoryStore::copiar)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Página por keyset (como MicrochipDAO.getPage): recorre el índice por id desde afterId
+     * y copia solo las filas de la página, sin importar el tamaño de la tabla.
+     *
+     * @return Copias de hasta limit microchips activos con id > afterId, ordenados por id
+     */
+    List<Microchip> getMicrochipsPagina(int afterId, int limit) {
+        List<Microchip> pagina = new ArrayList<>(Math.min(limit, 1024));
+        for (Microchip fila : microchips.tailMap(afterId, false).values()) {
+            if (pagina.size() >= limit) {
+                break;
+            }
+            if (!fila.isEliminado()) {
+                pagina.add(copiar(fila));
+            }
+        }
+        return pagina;
+    }
+
+    /**
+     * Recorre los microchips activos por id sin copiarlos (memoria constante):
+     * cada uno llega al visitante como (id, codigo_chip, marca) en un arreglo reutilizado.
+     * Las filas nunca se modifican en el lugar, así que leerlas sin lock es seguro.
+     *
+     * @return Cantidad de filas recorridas
+     */
+    long recorrerMicrochips(String[] columnas, VisitanteFilas visitante) throws IOException {
+        visitante.inicio(columnas);
+        Object[] valores = new Object[3];
+        long filas = 0;
+        for (Microchip fila : microchips.values()) {
+            if (fila.isEliminado()) {
+                continue;
+            }
+            valores[0] = fila.getId();
+            valores[1] = fila.getCodigoChip();
+            valores[2] = fila.getMarca();
+            visitante.fila(valores);
+            filas++;
+        }
+        return filas;
+    }
+
+    // ==================== Mascotas ====================
+
+    /**
+     * Inserta una mascota y le asigna el id generado.
+     *
+     * @throws SQLIntegrityConstraintViolationException Si el codigo_tag ya existe o el microchip no existe
+     */
+    void insertarMascota(Mascota mascota) throws SQLException {
+        synchronized (escritura) {
+            validarTagLibre(mascota.getCodigoTag(), 0);
+            validarMicrochipExiste(mascota.getMicrochip());
+
+            Mascota fila = fila(mascota);
+            fila.setId(ultimoIdMascota + 1);
+            fila.setEliminado(false);
+            confirmar(List.of(), List.of(fila));
+            mascota.setId(fila.getId());
+        }
+    }
+
+    /**
+     * Inserta (o actualiza, si ya tiene id) el microchip de la mascota y luego la mascota,
+     * todo o nada: si algo falla no se modifica el almacén ni los ids recibidos.
+     *
+     * @throws SQLException Si el codigo_tag ya existe o el microchip a actualizar no existe
+     */
+    void insertarMascotaConMicrochip(Mascota mascota) throws SQLException {
+        Microchip microchip = mascota.getMicrochip();
+        synchronized (escritura) {
+            validarTagLibre(mascota.getCodigoTag(), 0);
+
+            List<Microchip> filasMicrochip = new ArrayList<>(1);
+            if (microchip != null && microchip.getId() == 0) {
+                Microchip filaMicrochip = copiar(microchip);
+                filaMicrochip.setId(ultimoIdMicrochip + 1);
+                filaMicrochip.setEliminado(false);
+                filasMicrochip.add(filaMicrochip);
+            } else if (microchip != null) {
+                filasMicrochip.add(filaActualizada(microchip));
+            }
+
+            Mascota fila = fila(mascota);
+            fila.setId(ultimoIdMascota + 1);
+            fila.setEliminado(false);
+            if (!filasMicrochip.isEmpty()) {
+                Microchip fk = new Microchip();
+                fk.setId(filasMicrochip.get(0).getId());
+                fila.setMicrochip(fk);
+            }
+
+            confirmar(filasMicrochip, List.of(fila));
+            if (microchip != null) {
+                microchip.setId(filasMicrochip.get(0).getId());
+            }
+            mascota.setId(fila.getId());
+        }
+    }
+
+    /**
+     * Inserta varias mascotas de forma atómica (todo o nada).
+     *
+     * @throws BatchInsertException Si alguna fila viola el UNIQUE de codigo_tag o la FK;
+     *         indica todas las filas fallidas y no se inserta ninguna
+     */
+    void insertarMascotas(List<Mascota> lista) throws SQLException {
+        synchronized (escritura) {
+            validarLote(lista);
+
+            List<Mascota> filas = new ArrayList<>(lista.size());
+            for (Mascota mascota : lista) {
+                Mascota fila = fila(mascota);
+                fila.setId(ultimoIdMascota + filas.size() + 1);
+                fila.setEliminado(false);
+                filas.add(fila);
+            }
+            confirmar(List.of(), filas);
+            for (int i = 0; i < lista.size(); i++) {
+                lista.get(i).setId(filas.get(i).getId());
+            }
+        }
+    }
+
+    /**
+     * Inserta varias mascotas junto con sus microchips nuevos (id == 0) de forma atómica
+     * (todo o nada). Los microchips existentes solo se referencian, como en MascotaDAO.
+     *
+     * @throws BatchInsertException Si alguna fila viola el UNIQUE de codigo_tag o la FK;
+     *         indica todas las filas fallidas y no se inserta ninguna
+     */
+    void insertarMascotasConMicrochip(List<Mascota> lista) throws SQLException {
+        synchronized (escritura) {
+            validarLote(lista);
+
+            List<Microchip> filasMicrochip = new ArrayList<>();
+            List<Mascota> filas = new ArrayList<>(lista.size());
+            for (Mascota mascota : lista) {
+                Mascota fila = fila(mascota);
+                fila.setId(ultimoIdMascota + filas.size() + 1);
+                fila.setEliminado(false);
+                Microchip microchip = mascota.getMicrochip();
+                if (microchip != null && microchip.getId() == 0) {
+                    Microchip filaMicrochip = copiar(microchip);
+                    filaMicrochip.setId(ultimoIdMicrochip + filasMicrochip.size() + 1);
+                    filaMicrochip.setEliminado(false);
+                    filasMicrochip.add(filaMicrochip);
+                    Microchip fk = new Microchip();
+                    fk.setId(filaMicrochip.getId());
+                    fila.setMicrochip(fk);
+                }
+                filas.add(fila);
+            }
+
+            confirmar(filasMicrochip, filas);
+            int siguienteMicrochip = 0;
+            for (int i = 0; i < lista.size(); i++) {
+                Mascota mascota = lista.get(i);
+                mascota.setId(filas.get(i).getId());
+                if (mascota.getMicrochip() != null && mascota.getMicrochip().getId() == 0) {
+                    mascota.getMicrochip().setId(filasMicrochip.get(siguienteMicrochip++).getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Valida un lote de mascotas a insertar: codigo_tag libre y no repetido dentro del lote,
+     * y microchips existentes. Llamar con el lock de escritura tomado.
+     *
+     * @throws BatchInsertException Con todas las filas fallidas
+     */
+    private void validarLote(List<Mascota> lista) throws SQLException {
+        List<Integer> fallidas = new ArrayList<>();
+        SQLException primerError = null;
+        Set<String> tagsDelLote = new HashSet<>();
+        for (int i = 0; i < lista.size(); i++) {
+            Mascota mascota = lista.get(i);
+            try {
+                validarTagLibre(mascota.getCodigoTag(), 0);
+                validarMicrochipExiste(mascota.getMicrochip());
+                if (!tagsDelLote.add(claveTag(mascota.getCodigoTag()))) {
+                    throw tagDuplicado(mascota.getCodigoTag());
+                }
+            } catch (SQLException e) {
+                fallidas.add(i);
+                primerError = primerError == null ? e : primerError;
+            }
+        }
+        if (primerError != null) {
+            throw new BatchInsertException("Falló la inserción por lotes de mascotas en "
+                    + fallidas.size() + " fila(s): " + primerError.getMessage(), fallidas, primerError);
+        }
+    }
+
+    /**
+     * Actualiza nombre, especie, codigo_tag y microchip (también de mascotas eliminadas,
+     * como el UPDATE por id).
+     *
+     * @throws SQLException Si la mascota no existe, el nuevo codigo_tag ya existe o el microchip no existe
+     */
+    void actualizarMascota(Mascota mascota) throws SQLException {
+        synchronized (escritura) {
+            Mascota actual = mascotas.get(mascota.getId());
+            if (actual == null) {
+                throw new SQLException("No se pudo actualizar la mascota con ID: " + mascota.getId());
+            }
+            validarTagLibre(mascota.getCodigoTag(), mascota.getId());
+            validarMicrochipExiste(mascota.getMicrochip());
+
+            Mascota nueva = fila(mascota);
+            nueva.setEliminado(actual.isEliminado());
+            confirmar(List.of(), List.of(nueva));
+        }
+    }
+
+    /**
+     * Soft delete de una mascota. Su codigo_tag sigue reservado (UNIQUE sobre toda la tabla).
+     *
+     * @throws SQLException Si la mascota no existe
+     */
+    void eliminarMascota(int id) throws SQLException {
+        synchronized (escritura) {
+            Mascota actual = mascotas.get(id);
+            if (actual == null) {
+                throw new SQLException("No se encontró mascota con ID: " + id);
+            }
+            Mascota eliminada = fila(actual);
+            eliminada.setEliminado(true);
+            confirmar(List.of(), List.of(eliminada));
+        }
+    }
+
+    /**
+     * Desasocia el microchip de la mascota y lo elimina (soft delete), atómicamente.
+     *
+     * @return false si la mascota no existe/está eliminada o el microchip no es el suyo
+     * @throws SQLException Si no se puede registrar en el log
+     */
+    boolean eliminarMicrochipDeMascota(int mascotaId, int microchipId) throws SQLException {
+        synchronized (escritura) {
+            Mascota actual = mascotas.get(mascotaId);
+            Microchip microchip = microchips.get(microchipId);
+            if (actual == null || actual.isEliminado() || microchip == null
+                    || actual.getMicrochip() == null || actual.getMicrochip().getId() != microchipId) {
+                return false;
+            }
+            Mascota sinMicrochip = fila(actual);
+            sinMicrochip.setMicrochip(null);
+            Microchip eliminado = copiar(microchip);
+            eliminado.setEliminado(true);
+            confirmar(List.of(eliminado), List.of(sinMicrochip));
+            return true;
+        }
+    }
+
+    /**
+     * @return Mascota activa con ese id (con su microchip resuelto), o null
+     */
+    Mascota getMascota(int id) {
+        Mascota fila = mascotas.get(id);
+        return fila == null || fila.isEliminado() ? null : resolver(fila, null);
+    }
+
+    /**
+     * @return Mapa id → mascota activa, en el orden de ids (los ausentes no aparecen);
+     *         las mascotas que comparten microchip reciben la misma instancia
+     */
+    Map<Integer, Mascota> getMascotas(Collection<Integer> ids) {
+        Map<Integer, Mascota> resultado = new LinkedHashMap<>();
+        Map<Integer, Microchip> identidad = new HashMap<>();
+        for (Integer id : ids) {
+            if (id != null && !resultado.containsKey(id)) {
+                Mascota fila = mascotas.get(id);
+                if (fila != null && !fila.isEliminado()) {
+                    resultado.put(id, resolver(fila, identidad));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Mascota activa con ese codigo_tag (sin distinguir mayúsculas ni acentos), o null
+     */
+    Mascota getMascotaPorTag(String codigoTag) {
+        Integer id = codigoTag == null ? null : mascotaIdPorTag.get(claveTag(codigoTag));
+        return id == null ? null : getMascota(id);
+    }
+
+    /**
+     * @return Mascotas activas ordenadas por id, con sus microchips resueltos
+     *         (una misma instancia por microchip, como en MascotaDAO.getAll)
+     */
+    List<Mascota> getMascotas() {
+        Map<Integer, Microchip> identidad = new HashMap<>();
+        return mascotas.values().stream()
+                .filter(m -> !m.isEliminado())
+                .map(fila -> resolver(fila, identidad))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Página por keyset (como MascotaDAO.getPage): recorre el índice por id desde afterId
+     * y resuelve solo las filas de la página, sin importar el tamaño de la tabla.
+     *
+     * @return Hasta limit mascotas activas con id > afterId, ordenadas por id
+     */
+    List<Mascota> getMascotasPagina(int afterId, int limit) {
+        List<Mascota> pagina = new ArrayList<>(Math.min(limit, 1024));
+        Map<Integer, Microchip> identidad = new HashMap<>();
+        for (Mascota fila : mascotas.tailMap(afterId, false).values()) {
+            if (pagina.size() >= limit) {
+                break;
+            }
+            if (!fila.isEliminado()) {
+                pagina.add(resolver(fila, identidad));
+            }
+        }
+        return pagina;
+    }
+
+    /**
+     * Recorre las mascotas activas por id sin copiarlas (memoria constante): cada
+     * una llega al visitante como (id, nombre, especie, codigo_tag, microchip_id,
+     * codigo_chip, marca) en un arreglo reutilizado, con su microchip resuelto como en el LEFT JOIN.
+     *
+     * @return Cantidad de filas recorridas
+     */
+    long recorrerMascotas(String[] columnas, VisitanteFilas visitante) throws IOException {
+        visitante.inicio(columnas);
+        Object[] valores = new Object[7];
+        long filas = 0;
+        for (Mascota fila : mascotas.values()) {
+            if (fila.isEliminado()) {
+                continue;
+            }
+            Microchip microchip = fila.getMicrochip() != null ? microchips.get(fila.getMicrochip().getId()) : null;
+            valores[0] = fila.getId();
+            valores[1] = fila.getNombre();
+            valores[2] = fila.getEspecie();
+            valores[3] = fila.getCodigoTag();
+            valores[4] = fila.getMicrochip() != null ? fila.getMicrochip().getId() : null;
+            valores[5] = microchip != null ? microchip.getCodigoChip() : null;
+            valores[6] = microchip != null ? microchip.getMarca() : null;
+            visitante.fila(valores);
+            filas++;
+        }
+        return filas;
+    }
+
+    /**
+     * Equivalente a LIKE '%filtro%' sobre nombre o especie: % y _ son comodines y la
+     * comparación no distingue mayúsculas ni acentos (ver la collation en la clase).
+     *
+     * @return Mascotas activas que coinciden, ordenadas por id
+     */
+    List<Mascota> buscarMascotas(String filtro) {
+        Pattern buscado = patronLike(filtro);
+        Map<Integer, Microchip> identidad = new HashMap<>();
+        return mascotas.values().stream()
+                .filter(m -> !m.isEliminado())
+                .filter(m -> contiene(m.getNombre(), buscado) || contiene(m.getEspecie(), buscado))
+                .map(fila -> resolver(fila, identidad))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Equivalente a MascotaDAO.buscarPorCodigoChip: mascotas activas cuyo microchip activo
+     * tiene ese codigo_chip exacto (resuelto con el índice de códigos numéricos).
+     *
+     * @return Mascotas que coinciden, ordenadas por id (vacía si no hay)
+     */
+    List<Mascota> buscarMascotasPorCodigoChip(String codigoChip) {
+        return mascotasPorMicrochips(idsMicrochipPorCodigo(codigoChip));
+    }
+
+    /**
+     * Equivalente a MascotaDAO.getMascotasByMicrochipId: resuelto con el índice inverso
+     * microchip_id → mascotas, sin recorrer la tabla.
+     *
+     * @return Mascotas activas que apuntan al microchip, ordenadas por id (vacía si no hay)
+     */
+    List<Mascota> getMascotasPorMicrochip(int microchipId) {
+        return mascotasPorMicrochips(Set.of(microchipId));
+    }
+
+    private List<Mascota> mascotasPorMicrochips(Set<Integer> microchipIds) {
+        Map<Integer, Microchip> identidad = new HashMap<>();
+        return microchipIds.stream()
+                .flatMap(microchipId -> mascotaIdsPorMicrochip.getOrDefault(microchipId, Set.of()).stream())
+                .map(mascotas::get)
+                // Una lectura concurrente puede ver el índice antes que la fila: se revalida
+                .filter(m -> m != null && !m.isEliminado() && m.getMicrochip() != null
+                        && microchipIds.contains(m.getMicrochip().getId()))
+                .distinct()
+                .sorted(Comparator.comparingInt(Mascota::getId))
+                .map(fila -> resolver(fila, identidad))
+                .collect(Collectors.toList());
+    }
+
+    // ==================== Auxiliares ====================
+
+    /**
+     * Confirma una escritura ya validada: la registra en el log (si hay) y recién
+     * entonces la aplica en memoria. Llamar con el lock de escritura tomado.
+     *
+     * Una vez registrada en el log la escritura está confirmada: si después falla la
+     * compactación, se informa y se conserva el log (se reintenta en la próxima escritura),
+     * pero no se lanza excepción, para que el llamador asigne los ids y no la repita.
+     */
+    private void confirmar(List<Microchip> filasMicrochip, List<Mascota> filasMascota) throws SQLException {
+        if (journal != null) {
+            try {
+                journal.registrar(filasMicrochip, filasMascota);
+            } catch (IOException e) {
+                throw new SQLException("Error al escribir el log del almacén en memoria: " + e.getMessage(), e);
+            }
+        }
+        aplicar(filasMicrochip, filasMascota);
+        if (journal != null && journal.debeCompactar()) {
+            try {
+                journal.compactar(microchips.values(), mascotas.values());
+            } catch (IOException e) {
+                System.err.println("No se pudo compactar el almacén en memoria (se conserva el log): "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Aplica filas completas en memoria (escrituras confirmadas y recuperación desde disco).
+     * Los ids AUTO_INCREMENT avanzan hasta el mayor id visto.
+     */
+    private void aplicar(List<Microchip> filasMicrochip, List<Mascota> filasMascota) {
+        for (Microchip fila : filasMicrochip) {
+            Microchip anterior = microchips.put(fila.getId(), fila);
+            indexarCodigo(anterior, fila);
+            ultimoIdMicrochip = Math.max(ultimoIdMicrochip, fila.getId());
+        }
+        for (Mascota fila : filasMascota) {
+            Mascota anterior = mascotas.put(fila.getId(), fila);
+            if (anterior != null && !claveTag(anterior.getCodigoTag()).equals(claveTag(fila.getCodigoTag()))) {
+                mascotaIdPorTag.remove(claveTag(anterior.getCodigoTag()));
+            }
+            mascotaIdPorTag.put(claveTag(fila.getCodigoTag()), fila.getId());
+            indexarMicrochip(anterior, fila);
+            ultimoIdMascota = Math.max(ultimoIdMascota, fila.getId());
+        }
+    }
+
+    /**
+     * Mantiene microchipIdPorCodigo al reemplazar una fila de microchip. Invariante: todo
+     * microchip activo con código numérico está en el índice con su id o con VARIOS_MICROCHIPS.
+     */
+    private void indexarCodigo(Microchip anterior, Microchip fila) {
+        if (anterior != null && !anterior.isEliminado() && anterior.getCodigoNumerico() != CodigoChip.NO_NUMERICO
+                && (fila.isEliminado() || anterior.getCodigoNumerico() != fila.getCodigoNumerico())
+                && microchipIdPorCodigo.get(anterior.getCodigoNumerico()) == fila.getId()) {
+            microchipIdPorCodigo.remove(anterior.getCodigoNumerico());
+        }
+        long codigo = fila.getCodigoNumerico();
+        if (fila.isEliminado() || codigo == CodigoChip.NO_NUMERICO) {
+            return;
+        }
+        int actual = microchipIdPorCodigo.get(codigo);
+        if (actual == LongIntHashMap.AUSENTE || actual == fila.getId()) {
+            microchipIdPorCodigo.put(codigo, fila.getId());
+        } else if (actual != VARIOS_MICROCHIPS) {
+            Microchip otro = microchips.get(actual);
+            boolean otroActivo = otro != null && !otro.isEliminado() && otro.getCodigoNumerico() == codigo;
+            microchipIdPorCodigo.put(codigo, otroActivo ? VARIOS_MICROCHIPS : fila.getId());
+        }
+    }
+
+    /**
+     * Mantiene mascotaIdsPorMicrochip al reemplazar una fila de mascota: solo las
+     * mascotas activas quedan asociadas a su microchip.
+     */
+    private void indexarMicrochip(Mascota anterior, Mascota fila) {
+        Integer microchipAnterior = anterior != null && !anterior.isEliminado() && anterior.getMicrochip() != null
+                ? anterior.getMicrochip().getId() : null;
+        Integer microchipNuevo = !fila.isEliminado() && fila.getMicrochip() != null ? fila.getMicrochip().getId() : null;
+        if (Objects.equals(microchipAnterior, microchipNuevo)) {
+            return;
+        }
+        if (microchipAnterior != null) {
+            mascotaIdsPorMicrochip.computeIfPresent(microchipAnterior, (microchipId, ids) -> {
+                ids.remove(fila.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        if (microchipNuevo != null) {
+            mascotaIdsPorMicrochip.computeIfAbsent(microchipNuevo, microchipId -> ConcurrentHashMap.newKeySet())
+                    .add(fila.getId());
+        }
+    }
+
+    /** Fila con los nuevos datos de un microchip existente (conserva eliminado). */
+    private Microchip filaActualizada(Microchip microchip) throws SQLException {
+        Microchip actual = microchips.get(microchip.getId());
+        if (actual == null) {
+            throw new SQLException("No se pudo actualizar el microchip con ID: " + microchip.getId());
+        }
+        Microchip nuevo = copiar(microchip);
+        nuevo.setEliminado(actual.isEliminado());
+        return nuevo;
+    }
+
+    private void validarTagLibre(String codigoTag, int idPropio) throws SQLException {
+        if (codigoTag == null) {
+            throw new SQLIntegrityConstraintViolationException("Column 'codigo_tag' cannot be null",
+                    SQLSTATE_INTEGRITY_VIOLATION, 1048);
+        }
+        Integer existente = mascotaIdPorTag.get(claveTag(codigoTag));
+        if (existente != null && existente != idPropio) {
+            throw tagDuplicado(codigoTag);
+        }
+    }
+
+    private void validarMicrochipExiste(Microchip microchip) throws SQLException {
+        if (microchip != null && microchip.getId() > 0 && !microchips.containsKey(microchip.getId())) {
+            throw new SQLIntegrityConstraintViolationException("Cannot add or update a child row: "
+                    + "microchip_id " + microchip.getId() + " no existe", SQLSTATE_INTEGRITY_VIOLATION, MYSQL_ERROR_FOREIGN_KEY);
+        }
+    }
+
+    private static SQLException tagDuplicado(String codigoTag) {
+        return new SQLIntegrityConstraintViolationException("Duplicate entry '" + codigoTag
+                + "' for key 'mascotas.codigo_tag'", SQLSTATE_INTEGRITY_VIOLATION, MYSQL_ERROR_DUPLICATE_ENTRY);
+    }
+
+    private static String claveTag(String codigoTag) {
+        return plegar(codigoTag);
+    }
+
+    private static boolean contiene(String valor, Pattern buscado) {
+        return valor != null && buscado.matcher(plegar(valor)).find();
+    }
+
+    /**
+     * Traduce el patrón de LIKE '%filtro%' a una expresión regular sobre el texto plegado:
+     * % es cualquier secuencia, _ un carácter, y \ hace literal al carácter siguiente.
+     */
+    private static Pattern patronLike(String filtro) {
+        String plegado = plegar(filtro);
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < plegado.length(); i++) {
+            char c = plegado.charAt(i);
+            if (c == '\\' && i + 1 < plegado.length()) {
+                literal.append(plegado.charAt(++i));
+            } else if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Clave de comparación de la collation: sin acentos y en minúsculas. Los textos ASCII
+     * (el caso habitual) no pasan por Normalizer.
+     */
+    private static String plegar(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) >= 0x80) {
+                valor = MARCAS.matcher(Normalizer.normalize(valor, Normalizer.Form.NFKD)).replaceAll("");
+                break;
+            }
+        }
+        return valor.toLowerCase(Locale.ROOT);
+    }
+
+    /** Copia de la mascota para guardar: el microchip se reduce a su id (FK). */
+    private static Mascota fila(Mascota mascota) {
+        Mascota fila = new Mascota(mascota.getId(), mascota.getNombre(), mascota.getEspecie(), mascota.getCodigoTag());
+        fila.setEliminado(mascota.isEliminado());
+        Microchip microchip = mascota.getMicrochip();
+        if (microchip != null && microchip.getId() > 0) {
+            Microchip fk = new Microchip();
+            fk.setId(microchip.getId());
+            fila.setMicrochip(fk);
+        }
+        return fila;
+    }
+
+    /**
+     * Copia de la fila con el microchip completo (LEFT JOIN, incluye microchips eliminados).
+     * Con un mapa de identidad, las mascotas de un mismo resultado comparten la copia del microchip.
+     */
+    private Mascota resolver(Mascota fila, Map<Integer, Microchip> identidad) {
+        Mascota mascota = new Mascota(fila.getId(), fila.getNombre(), fila.getEspecie(), fila.getCodigoTag());
+        if (fila.getMicrochip() != null) {
+            int microchipId = fila.getMicrochip().getId();
+            Microchip copia = identidad != null ? identidad.get(microchipId) : null;
+            if (copia == null) {
+                Microchip microchip = microchips.get(microchipId);
+                if (microchip != null) {
+                    // Como MascotaDAO.mapResultSetToMascota: el JOIN no lee c.eliminado
+                    copia = new Microchip(microchip.getId(), microchip.getCodigoChip(), microchip.getMarca());
+                    if (identidad != null) {
+                        identidad.put(microchipId, copia);
+                    }
+                }
+            }
+            mascota.setMicrochip(copia);
+        }
+        return mascota;
+    }
+
+    private static Microchip copiar(Microchip microchip) {
+        Microchip copia = new Microchip(microchip.getId(), microchip.getCodigoChip(), microchip.getMarca());
+        copia.setEliminado(microchip.isEliminado());
+        return copia;
+    }
+}
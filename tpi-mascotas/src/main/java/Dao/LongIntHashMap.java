@@ -0,0 +1,190 @@
+package Dao;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Mapa long → int sin boxing, para indexar microchips por código numérico
+ * (Microchip.getCodigoNumerico). Reemplaza a un Map&lt;Long, Integer&gt;: no crea un Long,
+ * un Integer ni un nodo por entrada, y cada entrada ocupa 16 bytes de un único long[].
+ *
+ * Direccionamiento abierto con sondeo lineal; claves y valores intercalados en el mismo
+ * arreglo ([clave, valor, clave, valor, ...]) para que cada búsqueda lea una sola línea
+ * de caché. Los borrados desplazan las entradas siguientes (sin lápidas).
+ *
+ * Las claves deben ser >= 0 (los códigos numéricos lo son): -1 marca un casillero vacío.
+ *
+ * Seguro para varios hilos: las escrituras toman el lock de escritura de un StampedLock
+ * y las lecturas son optimistas (sin bloquear); si una escritura se cruzó con la lectura,
+ * se repite con el lock de lectura.
+ */
+public final class LongIntHashMap {
+    /** Valor de get() cuando la clave no está. */
+    public static final int AUSENTE = Integer.MIN_VALUE;
+
+    private static final long VACIO = -1L;
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    private final StampedLock lock = new StampedLock();
+
+    /** Pares clave/valor intercalados; su largo es 2 * capacidad (potencia de 2). */
+    private volatile long[] tabla;
+    private int tamanio;
+
+    /**
+     * @param esperados Cantidad de entradas esperada (se redimensiona si se supera)
+     */
+    public LongIntHashMap(int esperados) {
+        int capacidad = CAPACIDAD_MINIMA;
+        while (capacidad < esperados * 2L && capacidad < (1 << 29)) {
+            capacidad <<= 1;
+        }
+        this.tabla = tablaVacia(capacidad);
+    }
+
+    /**
+     * @return Valor asociado a la clave, o AUSENTE
+     */
+    public int get(long clave) {
+        long stamp = lock.tryOptimisticRead();
+        int valor = buscar(tabla, clave);
+        if (lock.validate(stamp)) {
+            return valor;
+        }
+        stamp = lock.readLock();
+        try {
+            return buscar(tabla, clave);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Asocia el valor a la clave, reemplazando el anterior.
+     *
+     * @throws IllegalArgumentException Si la clave es negativa o el valor es AUSENTE
+     */
+    public void put(long clave, int valor) {
+        if (clave < 0 || valor == AUSENTE) {
+            throw new IllegalArgumentException("Clave o valor inválido: " + clave + " → " + valor);
+        }
+        long stamp = lock.writeLock();
+        try {
+            long[] t = tabla;
+            int mascara = t.length / 2 - 1;
+            int i = indice(clave, mascara);
+            while (t[2 * i] != VACIO) {
+                if (t[2 * i] == clave) {
+                    t[2 * i + 1] = valor;
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            t[2 * i] = clave;
+            t[2 * i + 1] = valor;
+            if (++tamanio * 2 > mascara + 1) {
+                redimensionar();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Quita la clave (no hace nada si no está).
+     */
+    public void remove(long clave) {
+        long stamp = lock.writeLock();
+        try {
+            long[] t = tabla;
+            int mascara = t.length / 2 - 1;
+            int i = indice(clave, mascara);
+            while (t[2 * i] != clave) {
+                if (t[2 * i] == VACIO) {
+                    return;
+                }
+                i = (i + 1) & mascara;
+            }
+            // Desplaza hacia atrás las entradas que quedarían inalcanzables tras el hueco
+            int hueco = i;
+            for (int j = (i + 1) & mascara; t[2 * j] != VACIO; j = (j + 1) & mascara) {
+                int ideal = indice(t[2 * j], mascara);
+                if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                    t[2 * hueco] = t[2 * j];
+                    t[2 * hueco + 1] = t[2 * j + 1];
+                    hueco = j;
+                }
+            }
+            t[2 * hueco] = VACIO;
+            tamanio--;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return Cantidad de entradas
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return tamanio;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Búsqueda acotada a la capacidad: aun leyendo una tabla a medio modificar
+     * (lectura optimista) siempre termina; el resultado se descarta si no valida.
+     */
+    private static int buscar(long[] t, long clave) {
+        int mascara = t.length / 2 - 1;
+        int i = indice(clave, mascara);
+        for (int n = 0; n <= mascara; n++) {
+            long actual = t[2 * i];
+            if (actual == clave) {
+                return (int) t[2 * i + 1];
+            }
+            if (actual == VACIO) {
+                return AUSENTE;
+            }
+            i = (i + 1) & mascara;
+        }
+        return AUSENTE;
+    }
+
+    /** Duplica la capacidad y reinserta. Llamar con el lock de escritura tomado. */
+    private void redimensionar() {
+        long[] anterior = tabla;
+        long[] nueva = tablaVacia(anterior.length); // el doble de casilleros: anterior.length == 2 * capacidad
+        int mascara = nueva.length / 2 - 1;
+        for (int k = 0; k < anterior.length; k += 2) {
+            if (anterior[k] != VACIO) {
+                int i = indice(anterior[k], mascara);
+                while (nueva[2 * i] != VACIO) {
+                    i = (i + 1) & mascara;
+                }
+                nueva[2 * i] = anterior[k];
+                nueva[2 * i + 1] = anterior[k + 1];
+            }
+        }
+        tabla = nueva;
+    }
+
+    private static long[] tablaVacia(int capacidad) {
+        long[] t = new long[2 * capacidad];
+        for (int k = 0; k < t.length; k += 2) {
+            t[k] = VACIO;
+        }
+        return t;
+    }
+
+    /** Mezcla final de MurmurHash3: los códigos consecutivos no caen en casilleros contiguos. */
+    private static int indice(long clave, int mascara) {
+        long h = clave;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mascara;
+    }
+}
@@ -1,28 +1,57 @@
 package Dao;
 
 import Config.DatabaseConnection;
+import Config.QueryMetrics;
+import Config.TransactionManager;
 import Models.Microchip;
 import Models.Mascota;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object para la entidad Mascota.
  * Gestiona todas las operaciones de persistencia de mascotas en la base de datos.
  *
  * Características:
- * - Implementa GenericDAO<Mascota> para operaciones CRUD estándar
+ * - Implementa GenericMascotaDAO (CRUD de GenericDAO<Mascota> + búsquedas y operaciones compuestas)
  * - Usa PreparedStatements en TODAS las consultas (protección contra SQL injection)
  * - Maneja LEFT JOIN con microchips para cargar la relación de forma eager
  * - Implementa soft delete (eliminado=TRUE, no DELETE físico)
- * - Proporciona búsquedas especializadas (por CodigoTag exacto, por nombre/especie con LIKE)
+ * - Proporciona búsquedas especializadas (por CodigoTag exacto, por nombre/especie con índice FULLTEXT ngram o LIKE)
  * - Soporta transacciones mediante insertTx() (recibe Connection externa)
+ * - Registra mascota + microchip en una única transacción (insertarConMicrochip)
+ * - Las consultas de varias filas comparten una única instancia de Microchip por id
+ *   (mapa de identidad por consulta): las mascotas con el mismo microchip lo ven igual
+ * - Soporta inserción por lotes mediante insertarBatch()/insertarBatchTx()
+ *   e insertarBatchConMicrochip() (lotes de mascotas con sus microchips nuevos)
  *
  * Patrón: DAO con try-with-resources para manejo automático de recursos JDBC
  */
-public class MascotaDAO implements GenericDAO<Mascota> {
+public class MascotaDAO implements GenericMascotaDAO {
+    /**
+     * Proyección explícita compartida por todas las SELECT de mascotas (LEFT JOIN con microchips).
+     * El orden de las columnas es fijo y define las constantes COL_*: mapResultSetToMascota
+     * lee por posición, así el driver no resuelve etiquetas en cada fila de un recorrido grande.
+     * Si se agrega o reordena una columna, actualizar también las constantes.
+     */
+    private static final String SELECT_COLUMNS = "SELECT m.id, m.nombre, m.especie, m.codigo_tag, m.microchip_id, " +
+            "c.id AS mic_id, c.codigo_chip, c.marca ";
+
+    private static final int COL_ID = 1;
+    private static final int COL_NOMBRE = 2;
+    private static final int COL_ESPECIE = 3;
+    private static final int COL_CODIGO_TAG = 4;
+    private static final int COL_MICROCHIP_ID = 5;
+    private static final int COL_MIC_ID = 6;
+    private static final int COL_CODIGO_CHIP = 7;
+    private static final int COL_MARCA = 8;
+
     /**
      * Query de inserción de mascota.
      * Inserta nombre, especie, codigo_tag y FK microchip_id.
@@ -41,13 +70,23 @@ public class MascotaDAO implements GenericDAO<Mascota> {
      */
     private static final String DELETE_SQL = "UPDATE mascotas SET eliminado = TRUE WHERE id = ?";
 
+    /**
+     * UPDATE multi-tabla que desasocia el microchip de la mascota (microchip_id = NULL)
+     * y hace soft delete del microchip en una sola sentencia.
+     * El JOIN + WHERE actúan como verificación de pertenencia: solo afecta filas si la
+     * mascota está activa, el microchip está activo y la mascota apunta a ese microchip.
+     * Si se aplica, afecta exactamente 2 filas (1 mascota + 1 microchip).
+     */
+    private static final String DETACH_AND_DELETE_MICROCHIP_SQL = "UPDATE mascotas m JOIN microchips c ON m.microchip_id = c.id " +
+            "SET m.microchip_id = NULL, c.eliminado = TRUE " +
+            "WHERE m.id = ? AND c.id = ? AND m.eliminado = FALSE AND c.eliminado = FALSE";
+
     /**
      * Query para obtener mascota por ID.
      * LEFT JOIN con microchips para cargar la relación de forma eager.
      * Solo retorna mascotas activas (eliminado=FALSE).
      */
-    private static final String SELECT_BY_ID_SQL = "SELECT m.id, m.nombre, m.especie, m.codigo_tag, m.microchip_id, " +
-            "c.id AS mic_id, c.codigo_chip, c.marca " +
+    private static final String SELECT_BY_ID_SQL = SELECT_COLUMNS +
             "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
             "WHERE m.id = ? AND m.eliminado = FALSE";
 
@@ -56,38 +95,147 @@ public class MascotaDAO implements GenericDAO<Mascota> {
      * LEFT JOIN con microchips para cargar relaciones.
      * Filtra por eliminado=FALSE (solo mascotas activas).
      */
-    private static final String SELECT_ALL_SQL = "SELECT m.id, m.nombre, m.especie, m.codigo_tag, m.microchip_id, " +
-            "c.id AS mic_id, c.codigo_chip, c.marca " +
+    private static final String SELECT_ALL_SQL = SELECT_COLUMNS +
+            "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
+            "WHERE m.eliminado = FALSE";
+
+    /**
+     * Columnas de la exportación (recorrerFilas), en el orden de EXPORT_SQL.
+     */
+    private static final String[] EXPORT_COLUMNS = {"id", "nombre", "especie", "codigo_tag", "microchip_id", "codigo_chip", "marca"};
+
+    /**
+     * Query de exportación: mascotas activas con los datos de su microchip, sin mapear a entidades.
+     */
+    private static final String EXPORT_SQL = "SELECT m.id, m.nombre, m.especie, m.codigo_tag, m.microchip_id, " +
+            "c.codigo_chip, c.marca " +
             "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
             "WHERE m.eliminado = FALSE";
 
+    /**
+     * Queries de carga de varias mascotas por ID (getByIds), una por cada forma de
+     * MultiGetHelper.FORMAS (1, 8, 32 y 128 placeholders en el IN).
+     * Solo mascotas activas (eliminado=FALSE).
+     */
+    private static final String[] SELECT_BY_IDS_SQL = MultiGetHelper.sqlPorForma(SELECT_COLUMNS +
+            "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
+            "WHERE m.eliminado = FALSE AND m.id IN (");
+
+    /**
+     * Query de paginación por keyset (seek) sobre la PK.
+     * Trae las siguientes N mascotas activas con id > ?, ordenadas por id.
+     * A diferencia de OFFSET, el costo no crece con la profundidad de la página
+     * porque MySQL arranca el recorrido del índice primario directamente en el id dado.
+     */
+    private static final String SELECT_PAGE_SQL = SELECT_COLUMNS +
+            "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
+            "WHERE m.eliminado = FALSE AND m.id > ? ORDER BY m.id LIMIT ?";
+
     /**
      * Query de búsqueda por nombre o especie con LIKE.
      * Permite búsqueda flexible: "boby" encuentra "Boby", "Bob", etc.
      * Usa % antes y después del filtro: LIKE '%filtro%'
      * Solo mascotas activas (eliminado=FALSE).
      */
-    private static final String SEARCH_BY_NAME_SQL = "SELECT m.id, m.nombre, m.especie, m.codigo_tag, m.microchip_id, " +
-            "c.id AS mic_id, c.codigo_chip, c.marca " +
+    private static final String SEARCH_BY_NAME_SQL = SELECT_COLUMNS +
             "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
             "WHERE m.eliminado = FALSE AND (m.nombre LIKE ? OR m.especie LIKE ?)";
 
+    /**
+     * Query de búsqueda por nombre o especie usando el índice FULLTEXT ngram
+     * ft_mascotas_nombre_especie (ver README).
+     * MATCH ... AGAINST con una frase entre comillas reduce los candidatos usando el índice
+     * (los n-gramas del filtro, contiguos) en lugar de recorrer toda la tabla; el LIKE
+     * posterior solo se evalúa sobre esos candidatos y conserva la semántica exacta de
+     * SEARCH_BY_NAME_SQL (coincidencia parcial, sin falsos positivos).
+     * Solo mascotas activas (eliminado=FALSE).
+     */
+    private static final String SEARCH_BY_NAME_FULLTEXT_SQL = SELECT_COLUMNS +
+            "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
+            "WHERE m.eliminado = FALSE AND MATCH(m.nombre, m.especie) AGAINST (? IN BOOLEAN MODE) " +
+            "AND (m.nombre LIKE ? OR m.especie LIKE ?)";
+
+    /**
+     * Largo mínimo del filtro para usar el índice ngram. Debe coincidir con
+     * ngram_token_size del servidor MySQL (default 2). Configurable via -Ddb.ngramTokenSize
+     */
+    private static final int NGRAM_TOKEN_SIZE = Integer.getInteger("db.ngramTokenSize", 2);
+
+    /**
+     * Código de error de MySQL cuando no existe el índice FULLTEXT (ER_FT_MATCHING_KEY_NOT_FOUND).
+     */
+    private static final int MYSQL_ERROR_FULLTEXT_INDEX_NOT_FOUND = 1191;
+
     /**
      * Query de búsqueda exacta por CodigoTag.
      * Usa comparación exacta (=) porque el CodigoTag es único (RN-001).
-     * Usado por MascotaServiceImpl.validateCodigoTagUnique() para verificar unicidad.
+     * Usado por MascotaServiceImpl.buscarPorCodigoTag() (la unicidad la garantiza el UNIQUE de la BD).
      * Solo mascotas activas (eliminado=FALSE).
      */
-    private static final String SEARCH_BY_TAG_SQL = "SELECT m.id, m.nombre, m.especie, m.codigo_tag, m.microchip_id, " +
-            "c.id AS mic_id, c.codigo_chip, c.marca " +
+    private static final String SEARCH_BY_TAG_SQL = SELECT_COLUMNS +
             "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
             "WHERE m.eliminado = FALSE AND m.codigo_tag = ?";
 
     /**
-     * DAO de microchips (actualmente no usado, pero disponible para operaciones futuras).
+     * Query de búsqueda por codigo_chip (de escáner a mascota).
+     * Usa el índice idx_microchips_codigo_chip para encontrar el microchip y el índice de la
+     * FK mascotas.microchip_id para llegar a sus mascotas: dos búsquedas por índice, sin
+     * recorrer ninguna tabla. INNER JOIN: solo mascotas con microchip.
+     * Un microchip puede estar asociado a varias mascotas (RN-040): devuelve todas.
+     * Solo mascotas y microchips activos (eliminado=FALSE).
+     */
+    private static final String SEARCH_BY_CODIGO_CHIP_SQL = SELECT_COLUMNS +
+            "FROM mascotas m JOIN microchips c ON m.microchip_id = c.id " +
+            "WHERE c.codigo_chip = ? AND c.eliminado = FALSE AND m.eliminado = FALSE ORDER BY m.id";
+
+    /**
+     * Query de las mascotas que apuntan a un microchip (índice inverso de la FK).
+     * Usa el índice idx_mascotas_microchip_id (ver README): una búsqueda por índice en
+     * lugar de recorrer mascotas. Incluye el microchip aunque esté eliminado (como el
+     * LEFT JOIN del resto de las SELECT): sirve para ver qué mascotas afectaría un cambio.
+     * Solo mascotas activas (eliminado=FALSE).
+     */
+    private static final String SELECT_BY_MICROCHIP_SQL = SELECT_COLUMNS +
+            "FROM mascotas m LEFT JOIN microchips c ON m.microchip_id = c.id " +
+            "WHERE m.microchip_id = ? AND m.eliminado = FALSE ORDER BY m.id";
+
+    /**
+     * Nombres de las sentencias para QueryMetrics (histograma de latencia por sentencia
+     * y log de consultas lentas). La medición la hace el pool de conexiones.
+     */
+    static {
+        QueryMetrics.registrar("MascotaDAO.INSERT", INSERT_SQL);
+        QueryMetrics.registrar("MascotaDAO.UPDATE", UPDATE_SQL);
+        QueryMetrics.registrar("MascotaDAO.DELETE", DELETE_SQL);
+        QueryMetrics.registrar("MascotaDAO.DETACH_AND_DELETE_MICROCHIP", DETACH_AND_DELETE_MICROCHIP_SQL);
+        QueryMetrics.registrar("MascotaDAO.SELECT_BY_ID", SELECT_BY_ID_SQL);
+        QueryMetrics.registrar("MascotaDAO.SELECT_ALL", SELECT_ALL_SQL);
+        QueryMetrics.registrar("MascotaDAO.EXPORT", EXPORT_SQL);
+        QueryMetrics.registrar("MascotaDAO.SELECT_PAGE", SELECT_PAGE_SQL);
+        QueryMetrics.registrar("MascotaDAO.SEARCH_BY_NAME", SEARCH_BY_NAME_SQL);
+        QueryMetrics.registrar("MascotaDAO.SEARCH_BY_NAME_FULLTEXT", SEARCH_BY_NAME_FULLTEXT_SQL);
+        QueryMetrics.registrar("MascotaDAO.SEARCH_BY_TAG", SEARCH_BY_TAG_SQL);
+        QueryMetrics.registrar("MascotaDAO.SEARCH_BY_CODIGO_CHIP", SEARCH_BY_CODIGO_CHIP_SQL);
+        QueryMetrics.registrar("MascotaDAO.SELECT_BY_MICROCHIP", SELECT_BY_MICROCHIP_SQL);
+        MultiGetHelper.registrarMetricas("MascotaDAO.SELECT_BY_IDS", SELECT_BY_IDS_SQL);
+    }
+
+    /**
+     * DAO de microchips, usado para las operaciones que coordinan mascota + microchip
+     * en una misma transacción (insertarConMicrochip).
      */
     private final MicrochipDAO microchipDAO;
 
+    /**
+     * Filas por executeBatch en insertarBatch. Por defecto -Ddb.batch.size (1000).
+     */
+    private int batchSize = BatchInsertHelper.DEFAULT_BATCH_SIZE;
+
+    /**
+     * false si la BD no tiene el índice FULLTEXT: a partir de ahí se usa solo LIKE.
+     */
+    private volatile boolean fulltextDisponible = true;
+
     /**
      * Constructor con inyección de MicrochipDAO.
      *
@@ -134,6 +282,128 @@ public class MascotaDAO implements GenericDAO<Mascota> {
         }
     }
 
+    /**
+     * Registra una mascota junto con su microchip en UNA transacción (una conexión, un commit).
+     *
+     * Flujo transaccional:
+     * 1. Si el microchip es nuevo (id == 0) lo inserta con insertTx para obtener su ID;
+     *    si ya existe (id > 0) actualiza sus datos con actualizarTx
+     * 2. Inserta la mascota con insertTx (FK microchip_id ya resuelta)
+     * 3. Commit; ante cualquier error, rollback completo (no quedan microchips huérfanos)
+     *
+     * @param mascota Mascota a insertar (su microchip puede ser null)
+     * @throws Exception Si falla alguna inserción/actualización (se hace rollback)
+     */
+    @Override
+    public void insertarConMicrochip(Mascota mascota) throws Exception {
+        Microchip microchip = mascota.getMicrochip();
+        boolean microchipNuevo = microchip != null && microchip.getId() == 0;
+
+        try (TransactionManager tx = new TransactionManager(DatabaseConnection.getConnection())) {
+            tx.startTransaction();
+            Connection conn = tx.getConnection();
+
+            if (microchipNuevo) {
+                microchipDAO.insertTx(microchip, conn);
+            } else if (microchip != null) {
+                microchipDAO.actualizarTx(microchip, conn);
+            }
+            insertTx(mascota, conn);
+
+            tx.commit();
+        } catch (Exception e) {
+            // El rollback descarta los IDs generados: se restauran para poder reintentar
+            mascota.setId(0);
+            if (microchipNuevo) {
+                microchip.setId(0);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Inserta varias mascotas por lotes en una única transacción propia.
+     * Si algún lote falla se hace rollback de todo (no quedan inserciones parciales).
+     *
+     * @param mascotas Mascotas a insertar (cada id se sobrescribe con el generado)
+     * @throws BatchInsertException Si falla algún lote (indica qué filas fallaron)
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public void insertarBatch(List<Mascota> mascotas) throws Exception {
+        try (TransactionManager tx = new TransactionManager(DatabaseConnection.getConnection())) {
+            tx.startTransaction();
+            insertarBatchTx(mascotas, tx.getConnection());
+            tx.commit();
+        }
+    }
+
+    /**
+     * Inserta por lotes varias mascotas junto con sus microchips nuevos en UNA transacción.
+     *
+     * Flujo transaccional:
+     * 1. Inserta por lotes los microchips nuevos (id == 0) y obtiene sus IDs
+     * 2. Inserta por lotes las mascotas (FK microchip_id ya resuelta); los microchips
+     *    existentes (id > 0) solo se referencian, no se actualizan
+     * 3. Commit; ante cualquier error, rollback completo y se restauran los IDs en 0
+     *
+     * @param mascotas Mascotas a insertar (sus microchips pueden ser null)
+     * @throws BatchInsertException Si falla algún lote (los índices son de la lista de
+     *         microchips nuevos o de mascotas, según el lote que falló)
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public void insertarBatchConMicrochip(List<Mascota> mascotas) throws Exception {
+        List<Microchip> microchipsNuevos = new ArrayList<>();
+        for (Mascota mascota : mascotas) {
+            if (mascota.getMicrochip() != null && mascota.getMicrochip().getId() == 0) {
+                microchipsNuevos.add(mascota.getMicrochip());
+            }
+        }
+
+        try (TransactionManager tx = new TransactionManager(DatabaseConnection.getConnection())) {
+            tx.startTransaction();
+            Connection conn = tx.getConnection();
+            if (!microchipsNuevos.isEmpty()) {
+                microchipDAO.insertarBatchTx(microchipsNuevos, conn);
+            }
+            insertarBatchTx(mascotas, conn);
+            tx.commit();
+        } catch (Exception e) {
+            // El rollback descarta los IDs generados: se restauran para poder reintentar
+            mascotas.forEach(m -> m.setId(0));
+            microchipsNuevos.forEach(m -> m.setId(0));
+            throw e;
+        }
+    }
+
+    /**
+     * Inserta varias mascotas por lotes (addBatch/executeBatch) dentro de una transacción existente.
+     * Usa lotes de batchSize filas y asigna a cada mascota su ID autogenerado.
+     *
+     * @param mascotas Mascotas a insertar
+     * @param conn Conexión transaccional (NO se cierra en este método)
+     * @throws BatchInsertException Si falla algún lote (indica qué filas fallaron)
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public void insertarBatchTx(List<Mascota> mascotas, Connection conn) throws Exception {
+        BatchInsertHelper.insertar(conn, INSERT_SQL, mascotas, batchSize, this::setMascotaParameters, "mascotas");
+    }
+
+    /**
+     * Cambia la cantidad de filas enviadas por cada executeBatch en insertarBatch.
+     *
+     * @param batchSize Filas por lote (debe ser mayor a 0)
+     * @throws IllegalArgumentException si batchSize es menor o igual a 0
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a 0");
+        }
+        this.batchSize = batchSize;
+    }
+
     /**
      * Actualiza una mascota existente en la base de datos.
      *
@@ -178,6 +448,40 @@ public class MascotaDAO implements GenericDAO<Mascota> {
         }
     }
 
+    /**
+     * Desasocia un microchip de su mascota y lo elimina lógicamente, de forma atómica.
+     * Usa una única sentencia UPDATE multi-tabla dentro de una transacción (una conexión,
+     * un commit), por lo que nunca queda un estado intermedio visible (FK limpia pero
+     * microchip activo, o microchip eliminado con FK apuntándolo).
+     *
+     * @param mascotaId ID de la mascota dueña del microchip
+     * @param microchipId ID del microchip a eliminar
+     * @return true si se aplicó; false si la mascota no existe/está eliminada o el
+     *         microchip no le pertenece (en ese caso no se modifica nada)
+     * @throws Exception Si hay error de BD (se hace rollback)
+     */
+    @Override
+    public boolean eliminarMicrochipDeMascota(int mascotaId, int microchipId) throws Exception {
+        try (TransactionManager tx = new TransactionManager(DatabaseConnection.getConnection());
+             PreparedStatement stmt = tx.getConnection().prepareStatement(DETACH_AND_DELETE_MICROCHIP_SQL)) {
+            tx.startTransaction();
+
+            stmt.setInt(1, mascotaId);
+            stmt.setInt(2, microchipId);
+            int rowsAffected = stmt.executeUpdate();
+
+            if (rowsAffected == 0) {
+                return false;
+            }
+            if (rowsAffected != 2) {
+                throw new SQLException("Resultado inesperado al eliminar el microchip " + microchipId
+                        + " de la mascota " + mascotaId + ": " + rowsAffected + " filas afectadas");
+            }
+            tx.commit();
+            return true;
+        }
+    }
+
     /**
      * Obtiene una mascota por su ID.
      * Incluye su microchip asociado mediante LEFT JOIN.
@@ -205,22 +509,43 @@ public class MascotaDAO implements GenericDAO<Mascota> {
     }
 
     /**
-     * Obtiene todas las mascotas activas (eliminado=FALSE).
+     * Obtiene varios mascotas por ID con consultas IN por tramos (ver MultiGetHelper),
+     * en lugar de una consulta por ID.
      * Incluye sus microchips mediante LEFT JOIN.
      *
+     * @param ids IDs a buscar (los repetidos o null se ignoran)
+     * @return Mapa ID → mascota en el orden de ids; los IDs inexistentes o eliminados no aparecen
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public Map<Integer, Mascota> getByIds(Collection<Integer> ids) throws Exception {
+        Map<Integer, Microchip> microchips = new HashMap<>();
+        try {
+            return MultiGetHelper.cargar(ids, SELECT_BY_IDS_SQL, rs -> mapResultSetToMascota(rs, microchips));
+        } catch (SQLException e) {
+            throw new Exception("Error al obtener mascotas por IDs: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Obtiene todas las mascotas activas (eliminado=FALSE).
+     * Incluye sus microchips mediante LEFT JOIN; las mascotas que comparten microchip
+     * reciben la misma instancia.
+     *
      * @return Lista de mascotas activas con sus microchips (puede estar vacía)
      * @throws Exception Si hay error de BD
      */
     @Override
     public List<Mascota> getAll() throws Exception {
         List<Mascota> mascotas = new ArrayList<>();
+        Map<Integer, Microchip> microchips = new HashMap<>();
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SELECT_ALL_SQL)) {
 
             while (rs.next()) {
-                mascotas.add(mapResultSetToMascota(rs));
+                mascotas.add(mapResultSetToMascota(rs, microchips));
             }
         } catch (SQLException e) {
             throw new Exception("Error al obtener todas las mascotas: " + e.getMessage(), e);
@@ -229,30 +554,137 @@ public class MascotaDAO implements GenericDAO<Mascota> {
     }
 
     /**
-     * Busca mascotas por nombre o especie con búsqueda flexible (LIKE).
+     * Recorre las mascotas activas con sus microchips (LEFT JOIN) sin cargarlas en memoria.
+     * Usa un cursor del servidor (streaming de MySQL): la memoria es constante
+     * sin importar el tamaño de la tabla. Por eso NO usa mapa de identidad de microchips
+     * (crecería con la tabla): cada mascota recibe su propia instancia.
+     *
+     * La conexión queda tomada hasta cerrar el Stream, por lo que DEBE usarse
+     * con try-with-resources:
+     * <pre>
+     * try (Stream&lt;Mascota&gt; s = dao.streamAll()) { s.forEach(...); }
+     * </pre>
+     *
+     * @return Stream perezoso de mascotas activas
+     * @throws Exception Si hay error de BD al abrir la consulta
+     */
+    @Override
+    public Stream<Mascota> streamAll() throws Exception {
+        return StreamingQuery.open(SELECT_ALL_SQL, this::mapResultSetToMascota, "mascotas");
+    }
+
+    /**
+     * Recorre las mascotas activas (con codigo_chip y marca de su microchip) entregando
+     * cada fila al visitante como valores de columna, sin crear objetos Mascota.
+     * Usa un cursor del servidor: la memoria es constante sin importar el tamaño de la tabla.
+     *
+     * @param visitante Receptor de las filas (id, nombre, especie, codigo_tag, microchip_id, codigo_chip, marca)
+     * @return Cantidad de filas recorridas
+     * @throws Exception Si hay error de BD o el visitante falla
+     */
+    @Override
+    public long recorrerFilas(VisitanteFilas visitante) throws Exception {
+        return StreamingQuery.recorrer(EXPORT_SQL, EXPORT_COLUMNS, visitante);
+    }
+
+    /**
+     * Obtiene una página de mascotas activas usando paginación por keyset.
+     * Para la primera página usar afterId = 0; para la siguiente, el id de la última mascota recibida.
+     *
+     * @param afterId Se devuelven solo mascotas con id mayor a este valor
+     * @param limit Cantidad máxima de mascotas a devolver
+     * @return Página de mascotas ordenadas por id (vacía si no hay más)
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public List<Mascota> getPage(int afterId, int limit) throws Exception {
+        List<Mascota> mascotas = new ArrayList<>();
+        Map<Integer, Microchip> microchips = new HashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PAGE_SQL)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    mascotas.add(mapResultSetToMascota(rs, microchips));
+                }
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error al obtener página de mascotas: " + e.getMessage(), e);
+        }
+        return mascotas;
+    }
+
+    /**
+     * Busca mascotas por nombre o especie con búsqueda flexible (coincidencia parcial).
+     *
+     * Si el filtro tiene al menos NGRAM_TOKEN_SIZE caracteres y no contiene espacios, usa
+     * el índice FULLTEXT ngram (SEARCH_BY_NAME_FULLTEXT_SQL) para evitar el full scan de
+     * LIKE '%filtro%'. Filtros más cortos, con espacios, con caracteres que la frase y el
+     * LIKE interpretan distinto (", % y _), o una BD sin el índice usan SEARCH_BY_NAME_SQL.
+     * Ambos caminos devuelven exactamente los mismos resultados.
      *
      * @param filtro Texto a buscar (no puede estar vacío)
      * @return Lista de mascotas que coinciden con el filtro (puede estar vacía)
      * @throws IllegalArgumentException Si el filtro está vacío
      * @throws SQLException Si hay error de BD
      */
+    @Override
     public List<Mascota> buscarPorNombreEspecie(String filtro) throws SQLException {
         if (filtro == null || filtro.trim().isEmpty()) {
             throw new IllegalArgumentException("El filtro de búsqueda no puede estar vacío");
         }
 
+        String searchPattern = "%" + filtro + "%";
+        String frase = filtro.trim();
+
+        if (fulltextDisponible && frase.length() >= NGRAM_TOKEN_SIZE && frase.chars().noneMatch(MascotaDAO::excluyeFulltext)) {
+            try {
+                return buscar(SEARCH_BY_NAME_FULLTEXT_SQL, "\"" + frase + "\"", searchPattern, searchPattern);
+            } catch (SQLException e) {
+                if (e.getErrorCode() != MYSQL_ERROR_FULLTEXT_INDEX_NOT_FOUND) {
+                    throw e;
+                }
+                fulltextDisponible = false;
+                System.err.println("Índice FULLTEXT ft_mascotas_nombre_especie no encontrado: la búsqueda usará LIKE");
+            }
+        }
+        return buscar(SEARCH_BY_NAME_SQL, searchPattern, searchPattern);
+    }
+
+    /**
+     * Caracteres que obligan a usar SEARCH_BY_NAME_SQL: los espacios separan la frase en
+     * tokens; " cierra la frase; % y _ son comodines en el LIKE pero literales en la frase.
+     */
+    private static boolean excluyeFulltext(int c) {
+        return Character.isWhitespace(c) || c == '"' || c == '%' || c == '_';
+    }
+
+    /**
+     * Ejecuta una consulta de búsqueda con parámetros String y mapea todas las filas.
+     *
+     * @param sql Query a ejecutar
+     * @param parametros Valores para los ? de la query, en orden
+     * @return Lista de mascotas encontradas (puede estar vacía)
+     * @throws SQLException Si hay error de BD
+     */
+    private List<Mascota> buscar(String sql, String... parametros) throws SQLException {
         List<Mascota> mascotas = new ArrayList<>();
+        Map<Integer, Microchip> microchips = new HashMap<>();
 
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SEARCH_BY_NAME_SQL)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            String searchPattern = "%" + filtro + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
+            for (int i = 0; i < parametros.length; i++) {
+                stmt.setString(i + 1, parametros[i]);
+            }
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    mascotas.add(mapResultSetToMascota(rs));
+                    mascotas.add(mapResultSetToMascota(rs, microchips));
                 }
             }
         }
@@ -267,6 +699,7 @@ public class MascotaDAO implements GenericDAO<Mascota> {
      * @throws IllegalArgumentException Si el CodigoTag está vacío
      * @throws SQLException Si hay error de BD
      */
+    @Override
     public Mascota buscarPorCodigoTag(String codigoTag) throws SQLException {
         if (codigoTag == null || codigoTag.trim().isEmpty()) {
             throw new IllegalArgumentException("El CodigoTag no puede estar vacío");
@@ -286,6 +719,49 @@ public class MascotaDAO implements GenericDAO<Mascota> {
         return null;
     }
 
+    /**
+     * Busca las mascotas activas cuyo microchip activo tiene el codigo_chip exacto.
+     *
+     * @param codigoChip Código exacto a buscar (se aplica trim automáticamente)
+     * @return Mascotas con ese microchip, ordenadas por id (vacía si no hay)
+     * @throws IllegalArgumentException Si el código está vacío
+     * @throws SQLException Si hay error de BD
+     */
+    @Override
+    public List<Mascota> buscarPorCodigoChip(String codigoChip) throws SQLException {
+        if (codigoChip == null || codigoChip.trim().isEmpty()) {
+            throw new IllegalArgumentException("El código del microchip no puede estar vacío");
+        }
+        return buscar(SEARCH_BY_CODIGO_CHIP_SQL, codigoChip.trim());
+    }
+
+    /**
+     * Obtiene las mascotas activas asociadas a un microchip (todas las que afecta
+     * actualizarlo o eliminarlo, RN-040).
+     *
+     * @param microchipId ID del microchip
+     * @return Mascotas con ese microchip_id, ordenadas por id (vacía si no hay)
+     * @throws SQLException Si hay error de BD
+     */
+    @Override
+    public List<Mascota> getMascotasByMicrochipId(int microchipId) throws SQLException {
+        List<Mascota> mascotas = new ArrayList<>();
+        Map<Integer, Microchip> microchips = new HashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_MICROCHIP_SQL)) {
+
+            stmt.setInt(1, microchipId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    mascotas.add(mapResultSetToMascota(rs, microchips));
+                }
+            }
+        }
+        return mascotas;
+    }
+
     /**
      * Setea los parámetros de mascota en un PreparedStatement.
      *
@@ -338,25 +814,48 @@ public class MascotaDAO implements GenericDAO<Mascota> {
     /**
      * Mapea un ResultSet a un objeto Mascota.
      * Reconstruye la relación con Microchip usando LEFT JOIN.
+     * Lee las columnas por posición (COL_*), por lo que el ResultSet debe venir
+     * de una query que use SELECT_COLUMNS.
+     *
+     * @param rs ResultSet posicionado en una fila con datos de mascota y microchip
+     * @return Mascota reconstruida con su microchip (si tiene)
+     * @throws SQLException Si hay error al leer columnas del ResultSet
+     */
+    // Package-private para que los benchmarks JMH (src/jmh) midan el mapeo aislado
+    Mascota mapResultSetToMascota(ResultSet rs) throws SQLException {
+        return mapResultSetToMascota(rs, null);
+    }
+
+    /**
+     * Mapea un ResultSet a un objeto Mascota resolviendo el microchip contra un mapa de
+     * identidad: todas las filas de una misma consulta que referencian el mismo microchip
+     * reciben la MISMA instancia (sus columnas se leen solo la primera vez).
      *
      * @param rs ResultSet posicionado en una fila con datos de mascota y microchip
+     * @param microchips Mapa de identidad id → Microchip de la consulta (null = una instancia por fila)
      * @return Mascota reconstruida con su microchip (si tiene)
      * @throws SQLException Si hay error al leer columnas del ResultSet
      */
-    private Mascota mapResultSetToMascota(ResultSet rs) throws SQLException {
+    Mascota mapResultSetToMascota(ResultSet rs, Map<Integer, Microchip> microchips) throws SQLException {
         Mascota mascota = new Mascota();
-        mascota.setId(rs.getInt("id"));
-        mascota.setNombre(rs.getString("nombre"));
-        mascota.setEspecie(rs.getString("especie"));
-        mascota.setCodigoTag(rs.getString("codigo_tag"));
+        mascota.setId(rs.getInt(COL_ID));
+        mascota.setNombre(rs.getString(COL_NOMBRE));
+        mascota.setEspecie(rs.getString(COL_ESPECIE));
+        mascota.setCodigoTag(rs.getString(COL_CODIGO_TAG));
 
         // Manejo correcto de LEFT JOIN: verificar si microchip_id es NULL
-        int microchipId = rs.getInt("microchip_id");
+        int microchipId = rs.getInt(COL_MICROCHIP_ID);
         if (microchipId > 0 && !rs.wasNull()) {
-            Microchip microchip = new Microchip();
-            microchip.setId(rs.getInt("mic_id"));
-            microchip.setCodigoChip(rs.getString("codigo_chip"));
-            microchip.setMarca(rs.getString("marca"));
+            Microchip microchip = microchips != null ? microchips.get(microchipId) : null;
+            if (microchip == null) {
+                microchip = new Microchip();
+                microchip.setId(rs.getInt(COL_MIC_ID));
+                microchip.setCodigoChip(rs.getString(COL_CODIGO_CHIP));
+                microchip.setMarca(rs.getString(COL_MARCA));
+                if (microchips != null) {
+                    microchips.put(microchipId, microchip);
+                }
+            }
             mascota.setMicrochip(microchip);
         }
 
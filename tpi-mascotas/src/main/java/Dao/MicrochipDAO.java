@@ -1,25 +1,43 @@
 package Dao;
 
 import Config.DatabaseConnection;
+import Config.QueryMetrics;
+import Config.TransactionManager;
 import Models.Microchip;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object para la entidad Microchip.
  * Gestiona todas las operaciones de persistencia de microchips en la base de datos.
  *
  * Características:
- * - Implementa GenericDAO<Microchip> para operaciones CRUD estándar
+ * - Implementa GenericMicrochipDAO (CRUD de GenericDAO<Microchip> más búsqueda por codigo_chip)
  * - Usa PreparedStatements en TODAS las consultas (protección contra SQL injection)
  * - Implementa soft delete (eliminado=TRUE, no DELETE físico)
  * - Soporta transacciones mediante insertTx() (recibe Connection externa)
+ * - Soporta inserción por lotes mediante insertarBatch()/insertarBatchTx()
  *
  * Patrón: DAO con try-with-resources para manejo automático de recursos JDBC
  */
-public class MicrochipDAO implements GenericDAO<Microchip> {
+public class MicrochipDAO implements GenericMicrochipDAO {
+    /**
+     * Proyección explícita compartida por todas las SELECT de microchips (en lugar de SELECT *).
+     * Solo trae las columnas que se mapean (no eliminado) y en orden fijo, que define
+     * las constantes COL_*: mapResultSetToMicrochip lee por posición.
+     */
+    private static final String SELECT_COLUMNS = "SELECT id, codigo_chip, marca ";
+
+    private static final int COL_ID = 1;
+    private static final int COL_CODIGO_CHIP = 2;
+    private static final int COL_MARCA = 3;
+
     /**
      * Query de inserción de microchip.
      * Inserta codigo_chip y marca.
@@ -50,13 +68,61 @@ public class MicrochipDAO implements GenericDAO<Microchip> {
      * Query para obtener microchip por ID.
      * Solo retorna microchips activos (eliminado=FALSE).
      */
-    private static final String SELECT_BY_ID_SQL = "SELECT * FROM microchips WHERE id = ? AND eliminado = FALSE";
+    private static final String SELECT_BY_ID_SQL = SELECT_COLUMNS + "FROM microchips WHERE id = ? AND eliminado = FALSE";
 
     /**
      * Query para obtener todos los microchips activos.
      * Filtra por eliminado=FALSE (solo microchips activos).
      */
-    private static final String SELECT_ALL_SQL = "SELECT * FROM microchips WHERE eliminado = FALSE";
+    private static final String SELECT_ALL_SQL = SELECT_COLUMNS + "FROM microchips WHERE eliminado = FALSE";
+
+    /**
+     * Query de búsqueda exacta por codigo_chip (lo que lee un escáner).
+     * Usa el índice idx_microchips_codigo_chip (ver README) en lugar de recorrer la tabla.
+     * codigo_chip no es UNIQUE: si hay varios microchips activos con el código, devuelve
+     * el de menor id. Solo microchips activos (eliminado=FALSE).
+     */
+    private static final String SEARCH_BY_CODIGO_SQL = SELECT_COLUMNS +
+            "FROM microchips WHERE codigo_chip = ? AND eliminado = FALSE ORDER BY id LIMIT 1";
+
+    /**
+     * Columnas de la exportación (recorrerFilas), en el orden de SELECT_COLUMNS.
+     */
+    private static final String[] EXPORT_COLUMNS = {"id", "codigo_chip", "marca"};
+
+    /**
+     * Queries de carga de varios microchips por ID (getByIds), una por cada forma de
+     * MultiGetHelper.FORMAS (1, 8, 32 y 128 placeholders en el IN).
+     * Solo microchips activos (eliminado=FALSE).
+     */
+    private static final String[] SELECT_BY_IDS_SQL = MultiGetHelper.sqlPorForma(SELECT_COLUMNS + "FROM microchips WHERE eliminado = FALSE AND id IN (");
+
+    /**
+     * Query de paginación por keyset (seek) sobre la PK.
+     * Trae los siguientes N microchips activos con id > ?, ordenados por id.
+     * El costo es constante sin importar la profundidad de la página (no usa OFFSET).
+     */
+    private static final String SELECT_PAGE_SQL = SELECT_COLUMNS + "FROM microchips WHERE eliminado = FALSE AND id > ? ORDER BY id LIMIT ?";
+
+    /**
+     * Nombres de las sentencias para QueryMetrics (histograma de latencia por sentencia
+     * y log de consultas lentas). La medición la hace el pool de conexiones.
+     */
+    static {
+        QueryMetrics.registrar("MicrochipDAO.INSERT", INSERT_SQL);
+        QueryMetrics.registrar("MicrochipDAO.UPDATE", UPDATE_SQL);
+        QueryMetrics.registrar("MicrochipDAO.DELETE", DELETE_SQL);
+        QueryMetrics.registrar("MicrochipDAO.SELECT_BY_ID", SELECT_BY_ID_SQL);
+        QueryMetrics.registrar("MicrochipDAO.SELECT_ALL", SELECT_ALL_SQL);
+        QueryMetrics.registrar("MicrochipDAO.SELECT_PAGE", SELECT_PAGE_SQL);
+        QueryMetrics.registrar("MicrochipDAO.SEARCH_BY_CODIGO", SEARCH_BY_CODIGO_SQL);
+        MultiGetHelper.registrarMetricas("MicrochipDAO.SELECT_BY_IDS", SELECT_BY_IDS_SQL);
+    }
+
+    /**
+     * Filas por executeBatch en insertarBatch. Por defecto -Ddb.batch.size (1000).
+     */
+    private int batchSize = BatchInsertHelper.DEFAULT_BATCH_SIZE;
 
     /**
      * Inserta un microchip en la base de datos (versión sin transacción).
@@ -95,6 +161,50 @@ public class MicrochipDAO implements GenericDAO<Microchip> {
         }
     }
 
+    /**
+     * Inserta varios microchips por lotes en una única transacción propia.
+     * Si algún lote falla se hace rollback de todo (no quedan inserciones parciales).
+     *
+     * @param microchips Microchips a insertar (cada id se sobrescribe con el generado)
+     * @throws BatchInsertException Si falla algún lote (indica qué filas fallaron)
+     * @throws SQLException Si hay error de BD
+     */
+    @Override
+    public void insertarBatch(List<Microchip> microchips) throws SQLException {
+        try (TransactionManager tx = new TransactionManager(DatabaseConnection.getConnection())) {
+            tx.startTransaction();
+            insertarBatchTx(microchips, tx.getConnection());
+            tx.commit();
+        }
+    }
+
+    /**
+     * Inserta varios microchips por lotes (addBatch/executeBatch) dentro de una transacción existente.
+     * Usa lotes de batchSize filas y asigna a cada microchip su ID autogenerado.
+     *
+     * @param microchips Microchips a insertar
+     * @param conn Conexión transaccional (NO se cierra en este método)
+     * @throws BatchInsertException Si falla algún lote (indica qué filas fallaron)
+     * @throws SQLException Si hay error de BD
+     */
+    @Override
+    public void insertarBatchTx(List<Microchip> microchips, Connection conn) throws SQLException {
+        BatchInsertHelper.insertar(conn, INSERT_SQL, microchips, batchSize, this::setMicrochipParameters, "microchips");
+    }
+
+    /**
+     * Cambia la cantidad de filas enviadas por cada executeBatch en insertarBatch.
+     *
+     * @param batchSize Filas por lote (debe ser mayor a 0)
+     * @throws IllegalArgumentException si batchSize es menor o igual a 0
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a 0");
+        }
+        this.batchSize = batchSize;
+    }
+
     /**
      * Actualiza un microchip existente en la base de datos.
      *
@@ -106,9 +216,21 @@ public class MicrochipDAO implements GenericDAO<Microchip> {
      */
     @Override
     public void actualizar(Microchip microchip) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            actualizarTx(microchip, conn);
+        }
+    }
 
+    /**
+     * Actualiza un microchip dentro de una transacción existente.
+     * NO cierra la conexión (responsabilidad del caller con TransactionManager).
+     *
+     * @param microchip Microchip con los datos actualizados (id debe ser > 0)
+     * @param conn Conexión transaccional (NO se cierra en este método)
+     * @throws SQLException Si el microchip no existe o hay error de BD
+     */
+    public void actualizarTx(Microchip microchip, Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
             stmt.setString(1, microchip.getCodigoChip());
             stmt.setString(2, microchip.getMarca());
             stmt.setInt(3, microchip.getId());
@@ -170,6 +292,19 @@ public class MicrochipDAO implements GenericDAO<Microchip> {
         return null;
     }
 
+    /**
+     * Obtiene varios microchips por ID con consultas IN por tramos (ver MultiGetHelper),
+     * en lugar de una consulta por ID.
+     *
+     * @param ids IDs a buscar (los repetidos o null se ignoran)
+     * @return Mapa ID → microchip en el orden de ids; los IDs inexistentes o eliminados no aparecen
+     * @throws SQLException Si hay error de BD
+     */
+    @Override
+    public Map<Integer, Microchip> getByIds(Collection<Integer> ids) throws SQLException {
+        return MultiGetHelper.cargar(ids, SELECT_BY_IDS_SQL, this::mapResultSetToMicrochip);
+    }
+
     /**
      * Obtiene todos los microchips activos (eliminado=FALSE).
      *
@@ -192,6 +327,95 @@ public class MicrochipDAO implements GenericDAO<Microchip> {
         return microchips;
     }
 
+    /**
+     * Recorre los microchips activos sin cargarlos en memoria.
+     * Usa un cursor del servidor (streaming de MySQL): la memoria es constante
+     * sin importar el tamaño de la tabla.
+     *
+     * La conexión queda tomada hasta cerrar el Stream, por lo que DEBE usarse
+     * con try-with-resources:
+     * <pre>
+     * try (Stream&lt;Microchip&gt; s = dao.streamAll()) { s.forEach(...); }
+     * </pre>
+     *
+     * @return Stream perezoso de microchips activos
+     * @throws SQLException Si hay error de BD al abrir la consulta
+     */
+    @Override
+    public Stream<Microchip> streamAll() throws SQLException {
+        return StreamingQuery.open(SELECT_ALL_SQL, this::mapResultSetToMicrochip, "microchips");
+    }
+
+    /**
+     * Recorre los microchips activos entregando cada fila al visitante como valores de
+     * columna, sin crear objetos Microchip. Usa un cursor del servidor (memoria constante).
+     *
+     * @param visitante Receptor de las filas (id, codigo_chip, marca)
+     * @return Cantidad de filas recorridas
+     * @throws SQLException Si hay error de BD
+     * @throws IOException Si el visitante falla
+     */
+    @Override
+    public long recorrerFilas(VisitanteFilas visitante) throws SQLException, IOException {
+        return StreamingQuery.recorrer(SELECT_ALL_SQL, EXPORT_COLUMNS, visitante);
+    }
+
+    /**
+     * Obtiene una página de microchips activos usando paginación por keyset.
+     * Para la primera página usar afterId = 0; para la siguiente, el id del último microchip recibido.
+     *
+     * @param afterId Se devuelven solo microchips con id mayor a este valor
+     * @param limit Cantidad máxima de microchips a devolver
+     * @return Página de microchips ordenados por id (vacía si no hay más)
+     * @throws SQLException Si hay error de BD
+     */
+    @Override
+    public List<Microchip> getPage(int afterId, int limit) throws SQLException {
+        List<Microchip> microchips = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PAGE_SQL)) {
+
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    microchips.add(mapResultSetToMicrochip(rs));
+                }
+            }
+        }
+        return microchips;
+    }
+
+    /**
+     * Busca un microchip activo por codigo_chip exacto.
+     *
+     * @param codigoChip Código exacto a buscar (se aplica trim automáticamente)
+     * @return Microchip con ese código (el de menor id si hay varios), o null si no existe o está eliminado
+     * @throws IllegalArgumentException Si el código está vacío
+     * @throws SQLException Si hay error de BD
+     */
+    @Override
+    public Microchip buscarPorCodigoChip(String codigoChip) throws SQLException {
+        if (codigoChip == null || codigoChip.trim().isEmpty()) {
+            throw new IllegalArgumentException("El código del microchip no puede estar vacío");
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SEARCH_BY_CODIGO_SQL)) {
+
+            stmt.setString(1, codigoChip.trim());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToMicrochip(rs);
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Setea los parámetros de microchip en un PreparedStatement.
      *
@@ -224,16 +448,19 @@ public class MicrochipDAO implements GenericDAO<Microchip> {
 
     /**
      * Mapea un ResultSet a un objeto Microchip.
+     * Lee las columnas por posición (COL_*), por lo que el ResultSet debe venir
+     * de una query que use SELECT_COLUMNS.
      *
      * @param rs ResultSet posicionado en una fila con datos de microchip
      * @return Microchip reconstruido
      * @throws SQLException Si hay error al leer columnas del ResultSet
      */
-    private Microchip mapResultSetToMicrochip(ResultSet rs) throws SQLException {
+    // Package-private para que los benchmarks JMH (src/jmh) midan el mapeo aislado
+    Microchip mapResultSetToMicrochip(ResultSet rs) throws SQLException {
         return new Microchip(
-                rs.getInt("id"),
-                rs.getString("codigo_chip"),
-                rs.getString("marca")
+                rs.getInt(COL_ID),
+                rs.getString(COL_CODIGO_CHIP),
+                rs.getString(COL_MARCA)
         );
     }
 }
\ No newline at end of file
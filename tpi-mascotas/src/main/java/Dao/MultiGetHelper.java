@@ -0,0 +1,129 @@
+package Dao;
+
+import Config.DatabaseConnection;
+import Config.QueryMetrics;
+import Models.Base;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lógica compartida de carga de varias entidades por ID (getByIds) para los DAO.
+ *
+ * Ejecuta SELECT ... WHERE id IN (?, ?, ...) en tramos. Para que el driver y la caché de
+ * statements del pool reutilicen siempre los mismos SQL, solo se usan listas de
+ * FORMAS (1, 8, 32 o 128 placeholders): cada tramo usa la forma más chica que lo contiene
+ * y completa los placeholders sobrantes repitiendo el último ID (no cambia el resultado).
+ * Ejemplo: 200 IDs = un tramo de 128 + uno de 72 sobre la forma de 128 (2 consultas).
+ */
+final class MultiGetHelper {
+    /** Cantidades de placeholders de las consultas IN, de menor a mayor. */
+    static final int[] FORMAS = {1, 8, 32, 128};
+
+    private MultiGetHelper() {
+        throw new UnsupportedOperationException("Esta es una clase utilitaria y no debe ser instanciada");
+    }
+
+    /**
+     * Arma un SQL por cada forma: prefijo + "?, ?, ..." + ")".
+     *
+     * @param prefijo SELECT terminado en "IN (" (ej: "... WHERE id IN (")
+     * @return SQL para cada forma, en el mismo orden que FORMAS
+     */
+    static String[] sqlPorForma(String prefijo) {
+        String[] sqls = new String[FORMAS.length];
+        for (int i = 0; i < FORMAS.length; i++) {
+            StringBuilder sb = new StringBuilder(prefijo);
+            for (int j = 0; j < FORMAS[i]; j++) {
+                sb.append(j == 0 ? "?" : ", ?");
+            }
+            sqls[i] = sb.append(')').toString();
+        }
+        return sqls;
+    }
+
+    /**
+     * Registra en QueryMetrics un nombre por forma: nombre[1], nombre[8], ...
+     *
+     * @param nombre Nombre base de la sentencia (ej: "MascotaDAO.SELECT_BY_IDS")
+     * @param sqlPorForma SQL de cada forma (ver sqlPorForma)
+     */
+    static void registrarMetricas(String nombre, String[] sqlPorForma) {
+        for (int i = 0; i < FORMAS.length; i++) {
+            QueryMetrics.registrar(nombre + "[" + FORMAS[i] + "]", sqlPorForma[i]);
+        }
+    }
+
+    /**
+     * Carga las entidades con los IDs dados usando una sola conexión.
+     * IDs repetidos o null se ignoran.
+     *
+     * @param ids IDs a buscar
+     * @param sqlPorForma SQL de cada forma (ver sqlPorForma)
+     * @param mapper Función que mapea cada fila
+     * @return Mapa ID → entidad en el orden de ids; los IDs inexistentes o eliminados no aparecen
+     * @throws SQLException Si hay error de BD
+     */
+    static <T extends Base> Map<Integer, T> cargar(Collection<Integer> ids, String[] sqlPorForma,
+                                                   StreamingQuery.RowMapper<T> mapper) throws SQLException {
+        Set<Integer> pendientes = new LinkedHashSet<>(ids);
+        pendientes.remove(null);
+        if (pendientes.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        int[] valores = pendientes.stream().mapToInt(Integer::intValue).toArray();
+        Map<Integer, T> encontradas = new HashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int desde = 0; desde < valores.length; ) {
+                int restantes = valores.length - desde;
+                int forma = formaPara(restantes);
+                int cantidad = Math.min(restantes, FORMAS[forma]);
+
+                try (PreparedStatement stmt = conn.prepareStatement(sqlPorForma[forma])) {
+                    for (int i = 0; i < FORMAS[forma]; i++) {
+                        // Placeholders sobrantes: se repite el último ID del tramo
+                        stmt.setInt(i + 1, valores[desde + Math.min(i, cantidad - 1)]);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            T entidad = mapper.map(rs);
+                            encontradas.put(entidad.getId(), entidad);
+                        }
+                    }
+                }
+                desde += cantidad;
+            }
+        }
+
+        Map<Integer, T> resultado = new LinkedHashMap<>();
+        for (int id : valores) {
+            T entidad = encontradas.get(id);
+            if (entidad != null) {
+                resultado.put(id, entidad);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Índice en FORMAS de la forma más chica que contiene n IDs (o la más grande si ninguna alcanza).
+     */
+    private static int formaPara(int n) {
+        for (int i = 0; i < FORMAS.length; i++) {
+            if (FORMAS[i] >= n) {
+                return i;
+            }
+        }
+        return FORMAS.length - 1;
+    }
+}
@@ -0,0 +1,375 @@
+package Dao;
+
+import Models.Mascota;
+import Models.Microchip;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Persistencia en disco de InMemoryStore: write-ahead log + snapshot binario.
+ *
+ * Archivos del directorio:
+ * - wal.log: log de solo-agregado. Cada escritura del almacén (insertar, actualizar,
+ *   eliminar, o una operación compuesta) es UN frame con la imagen final de las filas
+ *   que modificó: [int largo][int crc32][registros]. Reproducir un frame es idempotente.
+ * - snapshot-N.bin: todas las filas (activas y eliminadas) al momento de la compactación N:
+ *   [int MAGIC][int VERSION][long largo del cuerpo][int crc32 del cuerpo][registros].
+ *
+ * Registro: [byte tipo][int id][byte eliminado][strings UTF-8 con largo, -1 = null]...
+ * - Microchip: codigo_chip, marca
+ * - Mascota: nombre, especie, codigo_tag, [int microchip_id, 0 = null]
+ *
+ * Arranque: se mapea en memoria (mmap) el snapshot válido más reciente y se decodifica
+ * de una pasada; luego se reproduce el log. Un frame final incompleto o con CRC inválido
+ * (caída a mitad de una escritura) se descarta y el log se trunca en ese punto.
+ *
+ * Compactación: cada COMPACT_EVERY frames se escribe snapshot-(N+1).bin, se fuerza a
+ * disco, se vacía el log y se borran los snapshots viejos. Si la caída ocurre antes de
+ * vaciar el log, el arranque usa el snapshot nuevo (o el viejo, si el nuevo quedó
+ * incompleto) y reproduce el log completo sin efectos duplicados.
+ *
+ * NO es thread-safe: InMemoryStore lo usa siempre con su lock de escritura tomado.
+ */
+final class StoreJournal implements Closeable {
+    /** Frames del log que disparan una compactación. Configurable via -Dapp.storage.compactEvery */
+    private static final int COMPACT_EVERY = Integer.getInteger("app.storage.compactEvery", 10_000);
+
+    /** Forzar a disco cada frame (durabilidad ante cortes de luz). Configurable via -Dapp.storage.fsync */
+    private static final boolean FSYNC = Boolean.parseBoolean(System.getProperty("app.storage.fsync", "true"));
+
+    private static final String WAL = "wal.log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int MAGIC = 0x54504953; // "TPIS"
+    private static final int VERSION = 1;
+    private static final int SNAPSHOT_HEADER = 4 + 4 + 8 + 4;
+    private static final int FRAME_HEADER = 4 + 4;
+
+    private static final byte TIPO_MICROCHIP = 1;
+    private static final byte TIPO_MASCOTA = 2;
+
+    private final Path directorio;
+    private final FileChannel wal;
+
+    /** Número del snapshot vigente (0 = ninguno). */
+    private long generacion;
+
+    /** Frames escritos en el log desde la última compactación. */
+    private int entradasPendientes;
+
+    StoreJournal(Path directorio) throws IOException {
+        this.directorio = Files.createDirectories(directorio);
+        this.wal = FileChannel.open(directorio.resolve(WAL),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Recupera el estado: snapshot más reciente + reproducción del log.
+     *
+     * @param aplicar Recibe las filas de cada registro recuperado, en orden
+     * @throws IOException Si no se pueden leer los archivos
+     */
+    void cargar(BiConsumer<List<Microchip>, List<Mascota>> aplicar) throws IOException {
+        cargarSnapshot(aplicar);
+
+        ByteBuffer contenido = ByteBuffer.allocate((int) wal.size());
+        // read() puede leer menos de lo pedido: una lectura corta no debe parecer un frame cortado
+        while (contenido.hasRemaining()) {
+            if (wal.read(contenido, contenido.position()) < 0) {
+                break;
+            }
+        }
+        contenido.flip();
+
+        long valido = 0;
+        while (contenido.remaining() >= FRAME_HEADER) {
+            int largo = contenido.getInt();
+            int crc = contenido.getInt();
+            if (largo < 0 || largo > contenido.remaining()) {
+                break;
+            }
+            ByteBuffer frame = contenido.slice();
+            frame.limit(largo);
+            if (crc(frame.duplicate()) != crc) {
+                break;
+            }
+            List<Microchip> filasMicrochip = new ArrayList<>();
+            List<Mascota> filasMascota = new ArrayList<>();
+            leerRegistros(frame, filasMicrochip, filasMascota);
+            aplicar.accept(filasMicrochip, filasMascota);
+
+            contenido.position(contenido.position() + largo);
+            valido = contenido.position();
+            entradasPendientes++;
+        }
+
+        if (valido < wal.size()) {
+            System.err.println("Log del almacén en memoria incompleto: se descartan "
+                    + (wal.size() - valido) + " bytes finales de " + directorio.resolve(WAL));
+            wal.truncate(valido);
+            wal.force(true);
+        }
+        wal.position(valido);
+    }
+
+    /**
+     * Agrega un frame al log con las filas de una escritura.
+     *
+     * Si la escritura falla, el log se trunca al inicio del frame: un frame a medias en
+     * el medio del log haría que cargar() descartara también los frames posteriores,
+     * que ya fueron confirmados.
+     */
+    void registrar(List<Microchip> filasMicrochip, List<Mascota> filasMascota) throws IOException {
+        int largo = 0;
+        for (Microchip fila : filasMicrochip) {
+            largo += tamano(fila);
+        }
+        for (Mascota fila : filasMascota) {
+            largo += tamano(fila);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER + largo);
+        buffer.putInt(largo).putInt(0);
+        filasMicrochip.forEach(fila -> escribir(buffer, fila));
+        filasMascota.forEach(fila -> escribir(buffer, fila));
+        buffer.putInt(4, crc(buffer.duplicate().position(FRAME_HEADER)));
+        buffer.flip();
+
+        long inicio = wal.position();
+        try {
+            while (buffer.hasRemaining()) {
+                wal.write(buffer);
+            }
+            if (FSYNC) {
+                wal.force(false);
+            }
+        } catch (IOException e) {
+            try {
+                wal.truncate(inicio);
+                wal.position(inicio);
+            } catch (IOException deshacer) {
+                e.addSuppressed(deshacer);
+            }
+            throw e;
+        }
+        entradasPendientes++;
+    }
+
+    boolean debeCompactar() {
+        return entradasPendientes >= COMPACT_EVERY;
+    }
+
+    int getEntradasPendientes() {
+        return entradasPendientes;
+    }
+
+    /**
+     * Escribe un snapshot nuevo con todas las filas, vacía el log y borra los snapshots viejos.
+     */
+    void compactar(Collection<Microchip> microchips, Collection<Mascota> mascotas) throws IOException {
+        long largo = 0;
+        for (Microchip fila : microchips) {
+            largo += tamano(fila);
+        }
+        for (Mascota fila : mascotas) {
+            largo += tamano(fila);
+        }
+        if (SNAPSHOT_HEADER + largo > Integer.MAX_VALUE) {
+            throw new IOException("El snapshot supera el tamaño máximo soportado (2 GB)");
+        }
+
+        ByteBuffer cuerpo = ByteBuffer.allocateDirect((int) largo);
+        microchips.forEach(fila -> escribir(cuerpo, fila));
+        mascotas.forEach(fila -> escribir(cuerpo, fila));
+        cuerpo.flip();
+
+        ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER);
+        header.putInt(MAGIC).putInt(VERSION).putLong(largo).putInt(crc(cuerpo.duplicate()));
+        header.flip();
+
+        long nueva = generacion + 1;
+        try (FileChannel snapshot = FileChannel.open(snapshot(nueva), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining() || cuerpo.hasRemaining()) {
+                snapshot.write(new ByteBuffer[]{header, cuerpo});
+            }
+            snapshot.force(true);
+        }
+
+        wal.truncate(0);
+        wal.force(true);
+        wal.position(0);
+        entradasPendientes = 0;
+        generacion = nueva;
+        borrarSnapshotsAnteriores();
+    }
+
+    @Override
+    public void close() throws IOException {
+        wal.close();
+    }
+
+    // ==================== Snapshot ====================
+
+    /**
+     * Mapea y decodifica el snapshot válido más reciente (si hay).
+     */
+    private void cargarSnapshot(BiConsumer<List<Microchip>, List<Mascota>> aplicar) throws IOException {
+        for (long candidata : generacionesDisponibles()) {
+            try (FileChannel canal = FileChannel.open(snapshot(candidata), StandardOpenOption.READ)) {
+                if (canal.size() < SNAPSHOT_HEADER) {
+                    continue;
+                }
+                MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                if (mapa.getInt() != MAGIC || mapa.getInt() != VERSION) {
+                    continue;
+                }
+                long largo = mapa.getLong();
+                int crc = mapa.getInt();
+                if (largo != mapa.remaining() || crc(mapa.slice()) != crc) {
+                    continue;
+                }
+
+                List<Microchip> filasMicrochip = new ArrayList<>();
+                List<Mascota> filasMascota = new ArrayList<>();
+                leerRegistros(mapa, filasMicrochip, filasMascota);
+                aplicar.accept(filasMicrochip, filasMascota);
+                generacion = candidata;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Números de snapshot presentes en el directorio, del más nuevo al más viejo
+     */
+    private List<Long> generacionesDisponibles() throws IOException {
+        List<Long> generaciones = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                try {
+                    generaciones.add(Long.parseLong(nombre.substring(SNAPSHOT_PREFIX.length(),
+                            nombre.length() - SNAPSHOT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Archivo ajeno con nombre parecido: se ignora
+                }
+            }
+        }
+        generaciones.sort((a, b) -> Long.compare(b, a));
+        return generaciones;
+    }
+
+    /**
+     * Borra los snapshots anteriores al vigente. En Windows un snapshot todavía mapeado
+     * no se puede borrar: se reintenta en la próxima compactación.
+     */
+    private void borrarSnapshotsAnteriores() throws IOException {
+        for (long vieja : generacionesDisponibles()) {
+            if (vieja < generacion) {
+                try {
+                    Files.deleteIfExists(snapshot(vieja));
+                } catch (IOException e) {
+                    // Sigue mapeado por el arranque; no afecta la recuperación (se usa el más nuevo)
+                }
+            }
+        }
+    }
+
+    private Path snapshot(long numero) {
+        return directorio.resolve(SNAPSHOT_PREFIX + numero + SNAPSHOT_SUFFIX);
+    }
+
+    // ==================== Codificación de registros ====================
+
+    private static void leerRegistros(ByteBuffer buffer, List<Microchip> filasMicrochip, List<Mascota> filasMascota)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            byte tipo = buffer.get();
+            int id = buffer.getInt();
+            boolean eliminado = buffer.get() != 0;
+            if (tipo == TIPO_MICROCHIP) {
+                Microchip fila = new Microchip(id, leerString(buffer), leerString(buffer));
+                fila.setEliminado(eliminado);
+                filasMicrochip.add(fila);
+            } else if (tipo == TIPO_MASCOTA) {
+                Mascota fila = new Mascota(id, leerString(buffer), leerString(buffer), leerString(buffer));
+                fila.setEliminado(eliminado);
+                int microchipId = buffer.getInt();
+                if (microchipId > 0) {
+                    Microchip fk = new Microchip();
+                    fk.setId(microchipId);
+                    fila.setMicrochip(fk);
+                }
+                filasMascota.add(fila);
+            } else {
+                throw new IOException("Registro desconocido en el almacén en memoria (tipo " + tipo + ")");
+            }
+        }
+    }
+
+    private static void escribir(ByteBuffer buffer, Microchip fila) {
+        buffer.put(TIPO_MICROCHIP).putInt(fila.getId()).put((byte) (fila.isEliminado() ? 1 : 0));
+        escribirString(buffer, fila.getCodigoChip());
+        escribirString(buffer, fila.getMarca());
+    }
+
+    private static void escribir(ByteBuffer buffer, Mascota fila) {
+        buffer.put(TIPO_MASCOTA).putInt(fila.getId()).put((byte) (fila.isEliminado() ? 1 : 0));
+        escribirString(buffer, fila.getNombre());
+        escribirString(buffer, fila.getEspecie());
+        escribirString(buffer, fila.getCodigoTag());
+        buffer.putInt(fila.getMicrochip() == null ? 0 : fila.getMicrochip().getId());
+    }
+
+    private static int tamano(Microchip fila) {
+        return 1 + 4 + 1 + tamano(fila.getCodigoChip()) + tamano(fila.getMarca());
+    }
+
+    private static int tamano(Mascota fila) {
+        return 1 + 4 + 1 + tamano(fila.getNombre()) + tamano(fila.getEspecie()) + tamano(fila.getCodigoTag()) + 4;
+    }
+
+    private static int tamano(String valor) {
+        return 4 + (valor == null ? 0 : valor.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void escribirString(ByteBuffer buffer, String valor) {
+        if (valor == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String leerString(ByteBuffer buffer) {
+        int largo = buffer.getInt();
+        if (largo < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[largo];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer datos) {
+        CRC32 crc = new CRC32();
+        crc.update(datos);
+        return (int) crc.getValue();
+    }
+}
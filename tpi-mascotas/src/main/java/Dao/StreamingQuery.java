@@ -0,0 +1,143 @@
+package Dao;
+
+import Config.DatabaseConnection;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ejecuta un SELECT en modo streaming (cursor del servidor) y lo expone como Stream.
+ *
+ * Con MySQL Connector/J, fetchSize = Integer.MIN_VALUE hace que el driver lea las filas
+ * de a una desde el socket en lugar de cargar todo el ResultSet en memoria, por lo que
+ * recorrer la tabla completa usa memoria constante.
+ *
+ * La conexión, el Statement y el ResultSet quedan abiertos mientras el Stream está vivo
+ * y se liberan en Stream.close(): el caller DEBE usar try-with-resources.
+ *
+ * recorrer() usa el mismo cursor pero entrega valores de columna crudos a un
+ * VisitanteFilas, sin crear entidades (exportaciones completas).
+ */
+final class StreamingQuery {
+    /** Fetch size usado para streaming. Configurable via -Ddb.stream.fetchSize */
+    private static final int FETCH_SIZE = Integer.getInteger("db.stream.fetchSize", Integer.MIN_VALUE);
+
+    /**
+     * Convierte la fila actual de un ResultSet en una entidad.
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private StreamingQuery() {
+        throw new UnsupportedOperationException("Esta es una clase utilitaria y no debe ser instanciada");
+    }
+
+    /**
+     * Abre un Stream sobre el resultado de una consulta sin parámetros.
+     *
+     * @param sql SELECT a ejecutar
+     * @param mapper Función que mapea cada fila
+     * @param nombreEntidad Nombre usado en los mensajes de error
+     * @return Stream perezoso; cerrarlo libera la conexión
+     * @throws SQLException Si falla la ejecución de la consulta
+     */
+    static <T> Stream<T> open(String sql, RowMapper<T> mapper, String nombreEntidad) throws SQLException {
+        Connection conn = DatabaseConnection.getConnection();
+        Statement stmt = null;
+        try {
+            stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(FETCH_SIZE);
+            ResultSet rs = stmt.executeQuery(sql);
+
+            Statement openStmt = stmt;
+            return StreamSupport.stream(new RowSpliterator<>(rs, mapper, nombreEntidad), false)
+                    .onClose(() -> closeAll(rs, openStmt, conn));
+        } catch (SQLException | RuntimeException e) {
+            closeAll(null, stmt, conn);
+            throw e;
+        }
+    }
+
+    /**
+     * Recorre el resultado de una consulta sin parámetros entregando cada fila, como
+     * valores de columna en un único arreglo reutilizado, al visitante.
+     *
+     * @param sql SELECT a ejecutar; sus columnas deben coincidir, en orden, con columnas
+     * @param columnas Nombres de las columnas informados al visitante
+     * @param visitante Receptor de las filas
+     * @return Cantidad de filas recorridas
+     * @throws SQLException Si falla la consulta
+     * @throws IOException Si el visitante falla al procesar una fila
+     */
+    static long recorrer(String sql, String[] columnas, VisitanteFilas visitante) throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                visitante.inicio(columnas);
+                Object[] valores = new Object[columnas.length];
+                long filas = 0;
+                while (rs.next()) {
+                    for (int i = 0; i < valores.length; i++) {
+                        valores[i] = rs.getObject(i + 1);
+                    }
+                    visitante.fila(valores);
+                    filas++;
+                }
+                return filas;
+            }
+        }
+    }
+
+    private static void closeAll(ResultSet rs, Statement stmt, Connection conn) {
+        for (AutoCloseable recurso : new AutoCloseable[]{rs, stmt, conn}) {
+            if (recurso == null) {
+                continue;
+            }
+            try {
+                recurso.close();
+            } catch (Exception e) {
+                System.err.println("Error al cerrar recursos del stream: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Spliterator secuencial que avanza el ResultSet de a una fila.
+     */
+    private static final class RowSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+        private final String nombreEntidad;
+
+        private RowSpliterator(ResultSet rs, RowMapper<T> mapper, String nombreEntidad) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+            this.mapper = mapper;
+            this.nombreEntidad = nombreEntidad;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                throw new RuntimeException("Error al recorrer " + nombreEntidad + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package Dao;
+
+import java.io.IOException;
+
+/**
+ * Recibe las filas de un recorrido completo de una tabla (GenericDAO.recorrerFilas)
+ * sin que se creen entidades: cada fila llega como un arreglo de valores de columna.
+ *
+ * El arreglo se REUTILIZA en cada fila: sus valores solo son válidos durante la llamada
+ * a fila(); si se necesitan después, hay que copiarlos.
+ */
+public interface VisitanteFilas {
+    /**
+     * Se invoca una vez, antes de la primera fila.
+     *
+     * @param columnas Nombres de las columnas, en el orden de los valores de cada fila
+     */
+    void inicio(String[] columnas) throws IOException;
+
+    /**
+     * Se invoca por cada fila.
+     *
+     * @param valores Valores de la fila (Integer, String o null), reutilizado entre filas
+     */
+    void fila(Object[] valores) throws IOException;
+}
@@ -1,10 +1,17 @@
 package Main;
 
+import Dao.GenericMascotaDAO;
+import Dao.GenericMicrochipDAO;
+import Dao.InMemoryMascotaDAO;
+import Dao.InMemoryMicrochipDAO;
+import Dao.InMemoryStore;
 import Dao.MicrochipDAO;
 import Dao.MascotaDAO;
 import Service.MicrochipServiceImpl;
 import Service.MascotaServiceImpl;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
@@ -21,6 +28,18 @@ import java.util.Scanner;
  * Patrón: Application Controller + Dependency Injection manual
  */
 public class AppMenu {
+    /**
+     * Motor de almacenamiento: "mysql" (por defecto) o "memoria" (InMemoryStore, sin BD).
+     * Configurable via -Dapp.storage
+     */
+    private static final String STORAGE = System.getProperty("app.storage", "mysql");
+
+    /**
+     * Directorio donde el almacenamiento en memoria persiste sus datos (log + snapshot).
+     * Sin valor, los datos en memoria se pierden al salir. Configurable via -Dapp.storage.dir
+     */
+    private static final String STORAGE_DIR = System.getProperty("app.storage.dir");
+
     /**
      * Scanner único compartido por toda la aplicación.
      */
@@ -41,10 +60,12 @@ public class AppMenu {
      *
      * Flujo de inicialización (Inyección de Dependencias manual):
      * 1. Crea Scanner
-     * 2. Crea MicrochipDAO
-     * 3. Crea MascotaDAO (depende de MicrochipDAO)
+     * 2. Crea MicrochipDAO (MySQL o en memoria, según -Dapp.storage)
+     * 3. Crea MascotaDAO (depende de MicrochipDAO o del mismo InMemoryStore)
      * 4. Crea MicrochipServiceImpl (depende de MicrochipDAO)
-     * 5. Crea MascotaServiceImpl (depende de MascotaDAO y MicrochipServiceImpl)
+     * 5. Crea MascotaServiceImpl (depende de MascotaDAO y MicrochipServiceImpl) y construye
+     *    su filtro de CodigoTag (y, con -Dcache.chipIndex=true, su índice de microchips)
+     *    recorriendo las tablas
      * 6. Crea MenuHandler (depende de Scanner y MascotaServiceImpl)
      */
     public AppMenu() {
@@ -97,6 +118,8 @@ public class AppMenu {
             case 8 -> menuHandler.eliminarMicrochipPorId();
             case 9 -> menuHandler.actualizarMicrochipPorMascota();
             case 10 -> menuHandler.eliminarMicrochipPorMascota();
+            case 11 -> menuHandler.importarMascotasCsv();
+            case 12 -> menuHandler.exportarRegistro();
             case 0 -> {
                 System.out.println("Saliendo...");
                 running = false;
@@ -109,12 +132,73 @@ public class AppMenu {
      * Factory method que crea la cadena de dependencias de servicios.
      * Implementa inyección de dependencias manual.
      *
+     * Con -Dapp.storage=memoria los DAO trabajan sobre un InMemoryStore compartido
+     * (persistido en -Dapp.storage.dir si se indica; si no, los datos se pierden al salir);
+     * con mysql (por defecto), sobre la BD configurada.
+     *
      * @return MascotaServiceImpl completamente inicializado
+     * @throws IllegalArgumentException si app.storage no es "mysql" ni "memoria"
+     * @throws IllegalStateException si no se pueden recuperar los datos de app.storage.dir
      */
     private MascotaServiceImpl createMascotaService() {
-        MicrochipDAO microchipDAO = new MicrochipDAO();
-        MascotaDAO mascotaDAO = new MascotaDAO(microchipDAO);
+        GenericMicrochipDAO microchipDAO;
+        GenericMascotaDAO mascotaDAO;
+        switch (STORAGE.trim().toLowerCase()) {
+            case "memoria" -> {
+                InMemoryStore store = createInMemoryStore();
+                microchipDAO = new InMemoryMicrochipDAO(store);
+                mascotaDAO = new InMemoryMascotaDAO(store);
+            }
+            case "mysql" -> {
+                MicrochipDAO mysqlMicrochipDAO = new MicrochipDAO();
+                microchipDAO = mysqlMicrochipDAO;
+                mascotaDAO = new MascotaDAO(mysqlMicrochipDAO);
+            }
+            default -> throw new IllegalArgumentException("Almacenamiento desconocido (app.storage): " + STORAGE
+                    + ". Valores válidos: mysql, memoria");
+        }
         MicrochipServiceImpl microchipService = new MicrochipServiceImpl(microchipDAO);
-        return new MascotaServiceImpl(mascotaDAO, microchipService);
+        MascotaServiceImpl mascotaService = new MascotaServiceImpl(mascotaDAO, microchipService);
+        try {
+            mascotaService.construirFiltroTags();
+        } catch (Exception e) {
+            // Sin filtro la aplicación funciona igual: buscarPorCodigoTag consulta siempre la BD
+            System.err.println("No se pudo construir el filtro de CodigoTag: " + e.getMessage());
+        }
+        try {
+            mascotaService.construirIndiceChips();
+        } catch (Exception e) {
+            // Sin construirlo, el índice se llena con las búsquedas por codigo_chip
+            System.err.println("No se pudo construir el índice de microchips: " + e.getMessage());
+        }
+        return mascotaService;
+    }
+
+    /**
+     * Crea el InMemoryStore: persistente en app.storage.dir (recuperando los datos
+     * guardados y cerrándolo al terminar la JVM) o solo en memoria.
+     *
+     * @return Almacén listo para usar
+     * @throws IllegalStateException si no se pueden recuperar los datos de app.storage.dir
+     */
+    private static InMemoryStore createInMemoryStore() {
+        if (STORAGE_DIR == null || STORAGE_DIR.trim().isEmpty()) {
+            System.out.println("Almacenamiento en memoria: los datos no se guardan al salir.");
+            return new InMemoryStore();
+        }
+        try {
+            InMemoryStore store = new InMemoryStore(Paths.get(STORAGE_DIR.trim()));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("Error al cerrar el almacenamiento en memoria: " + e.getMessage());
+                }
+            }, "storage-shutdown"));
+            System.out.println("Almacenamiento en memoria persistido en: " + STORAGE_DIR.trim());
+            return store;
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo abrir el almacenamiento en " + STORAGE_DIR + ": " + e.getMessage(), e);
+        }
     }
 }
\ No newline at end of file
@@ -26,6 +26,8 @@ public class MenuDisplay {
         System.out.println("8. Eliminar microchip por ID (Peligroso)");
         System.out.println("9. Actualizar microchip por ID de mascota");
         System.out.println("10. Eliminar microchip por ID de mascota (Seguro)");
+        System.out.println("11. Importar mascotas desde CSV");
+        System.out.println("12. Exportar mascotas o microchips (CSV / JSON Lines)");
         System.out.println("0. Salir");
         System.out.print("Ingrese una opcion: ");
     }
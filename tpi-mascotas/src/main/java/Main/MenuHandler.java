@@ -1,11 +1,17 @@
 package Main;
 
+import Models.Base;
 import Models.Microchip;
 import Models.Mascota;
+import Service.ExportadorRegistro;
+import Service.GenericService;
+import Service.ImportadorCsv;
 import Service.MascotaServiceImpl;
 
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
 /**
  * Controlador de las operaciones del menú (Menu Handler).
@@ -21,6 +27,11 @@ import java.util.Scanner;
  * Todas las validaciones de negocio están en la capa Service.
  */
 public class MenuHandler {
+    /**
+     * Cantidad de filas por página en los listados completos.
+     */
+    private static final int TAMANO_PAGINA = 20;
+
     /**
      * Scanner compartido para leer entrada del usuario.
      */
@@ -77,20 +88,28 @@ public class MenuHandler {
     }
 
     /**
-     * Opción 2: Listar mascotas (todas o filtradas por nombre/especie).
+     * Opción 2: Listar mascotas (todas paginadas, filtradas por nombre/especie o por
+     * código de microchip leído con un escáner).
      */
     public void listarMascotas() {
         try {
-            System.out.print("¿Desea (1) listar todas o (2) buscar por nombre/especie? Ingrese opcion: ");
+            System.out.print("¿Desea (1) listar todas, (2) buscar por nombre/especie o (3) buscar por código de microchip? Ingrese opcion: ");
             int subopcion = Integer.parseInt(scanner.nextLine());
 
-            List<Mascota> mascotas;
             if (subopcion == 1) {
-                mascotas = mascotaService.getAll();
-            } else if (subopcion == 2) {
+                listarMascotasPaginado();
+                return;
+            }
+
+            List<Mascota> mascotas;
+            if (subopcion == 2) {
                 System.out.print("Ingrese texto a buscar: ");
                 String filtro = scanner.nextLine().trim();
                 mascotas = mascotaService.buscarPorNombreEspecie(filtro);
+            } else if (subopcion == 3) {
+                System.out.print("Ingrese el código del microchip: ");
+                String codigoChip = scanner.nextLine().trim();
+                mascotas = mascotaService.buscarPorCodigoChip(codigoChip);
             } else {
                 System.out.println("Opcion invalida.");
                 return;
@@ -102,12 +121,7 @@ public class MenuHandler {
             }
 
             for (Mascota m : mascotas) {
-                System.out.println("ID: " + m.getId() + ", Nombre: " + m.getNombre() +
-                        ", Especie: " + m.getEspecie() + ", Codigo Tag: " + m.getCodigoTag());
-                if (m.getMicrochip() != null) {
-                    System.out.println("   Microchip: " + m.getMicrochip().getCodigoChip() +
-                            " (Marca: " + m.getMicrochip().getMarca() + ")");
-                }
+                imprimirMascota(m);
             }
         } catch (Exception e) {
             System.err.println("Error al listar mascotas: " + e.getMessage());
@@ -182,18 +196,13 @@ public class MenuHandler {
     }
 
     /**
-     * Opción 6: Listar todos los microchips activos.
+     * Opción 6: Listar todos los microchips activos (paginado).
      */
     public void listarMicrochips() {
         try {
-            List<Microchip> microchips = mascotaService.getMicrochipService().getAll();
-            if (microchips.isEmpty()) {
-                System.out.println("No se encontraron microchips.");
-                return;
-            }
-            for (Microchip m : microchips) {
-                System.out.println("ID: " + m.getId() + ", Codigo: " + m.getCodigoChip() + ", Marca: " + m.getMarca());
-            }
+            listarPaginado(mascotaService.getMicrochipService(),
+                    m -> System.out.println("ID: " + m.getId() + ", Codigo: " + m.getCodigoChip() + ", Marca: " + m.getMarca()),
+                    "No se encontraron microchips.");
         } catch (Exception e) {
             System.err.println("Error al listar microchips: " + e.getMessage());
         }
@@ -201,6 +210,7 @@ public class MenuHandler {
 
     /**
      * Opción 7: Actualizar microchip por ID.
+     * Si el microchip es compartido, muestra las mascotas afectadas y pide confirmación (RN-040).
      */
     public void actualizarMicrochipPorId() {
         try {
@@ -225,6 +235,19 @@ public class MenuHandler {
                 m.setMarca(marca);
             }
 
+            List<Mascota> afectadas = mascotaService.getMascotasByMicrochipId(id);
+            if (afectadas.size() > 1) {
+                System.out.println("Este microchip está asociado a " + afectadas.size() + " mascotas; el cambio las afectará a todas:");
+                for (Mascota afectada : afectadas) {
+                    imprimirMascota(afectada);
+                }
+                System.out.print("¿Desea continuar? (s/n): ");
+                if (!scanner.nextLine().equalsIgnoreCase("s")) {
+                    System.out.println("Actualización cancelada.");
+                    return;
+                }
+            }
+
             mascotaService.getMicrochipService().actualizar(m);
             System.out.println("Microchip actualizado exitosamente.");
         } catch (Exception e) {
@@ -234,11 +257,29 @@ public class MenuHandler {
 
     /**
      * Opción 8: Eliminar microchip por ID (PELIGROSO - soft delete directo).
+     * Si hay mascotas asociadas, las muestra (quedarían con la FK apuntando a un microchip
+     * eliminado, RN-029) y pide confirmación.
      */
     public void eliminarMicrochipPorId() {
         try {
             System.out.print("ID del microchip a eliminar: ");
             int id = Integer.parseInt(scanner.nextLine());
+
+            List<Mascota> afectadas = mascotaService.getMascotasByMicrochipId(id);
+            if (!afectadas.isEmpty()) {
+                System.out.println("ATENCIÓN: " + afectadas.size() + " mascota(s) siguen asociadas a este microchip "
+                        + "y quedarían apuntando a un microchip eliminado:");
+                for (Mascota afectada : afectadas) {
+                    imprimirMascota(afectada);
+                }
+                System.out.println("Para quitarlo de una mascota use la opción 10 (segura).");
+                System.out.print("¿Desea eliminarlo de todos modos? (s/n): ");
+                if (!scanner.nextLine().equalsIgnoreCase("s")) {
+                    System.out.println("Eliminación cancelada.");
+                    return;
+                }
+            }
+
             mascotaService.getMicrochipService().eliminar(id);
             System.out.println("Microchip eliminado exitosamente.");
         } catch (Exception e) {
@@ -312,6 +353,135 @@ public class MenuHandler {
         }
     }
 
+    /**
+     * Opción 11: Importar mascotas (con microchip opcional) desde un archivo CSV.
+     * Las filas inválidas no detienen la importación: se informan en un archivo de rechazos.
+     */
+    public void importarMascotasCsv() {
+        try {
+            System.out.println("Formato: nombre,especie,codigo_tag[,codigo_chip,marca] (UTF-8)");
+            System.out.print("Ruta del archivo CSV: ");
+            String ruta = scanner.nextLine().trim();
+            if (ruta.isEmpty()) {
+                System.out.println("Importación cancelada.");
+                return;
+            }
+
+            ImportadorCsv.Resultado resultado = new ImportadorCsv(mascotaService).importar(Paths.get(ruta));
+            System.out.println("Importación finalizada. " + resultado);
+            if (resultado.getArchivoRechazos() != null) {
+                System.out.println("Filas rechazadas en: " + resultado.getArchivoRechazos());
+            }
+        } catch (Exception e) {
+            System.err.println("Error al importar mascotas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opción 12: Exportar todas las mascotas o todos los microchips activos a un archivo
+     * CSV o JSON Lines, informando el avance (memoria constante, apto para tablas grandes).
+     */
+    public void exportarRegistro() {
+        try {
+            System.out.print("Tabla a exportar (1 = mascotas, 2 = microchips): ");
+            String tabla = scanner.nextLine().trim();
+            GenericService<?> servicio;
+            if (tabla.equals("1")) {
+                servicio = mascotaService;
+            } else if (tabla.equals("2")) {
+                servicio = mascotaService.getMicrochipService();
+            } else {
+                System.out.println("Opcion no valida.");
+                return;
+            }
+
+            System.out.print("Formato (1 = CSV, 2 = JSON Lines): ");
+            String opcionFormato = scanner.nextLine().trim();
+            ExportadorRegistro.Formato formato;
+            if (opcionFormato.equals("1")) {
+                formato = ExportadorRegistro.Formato.CSV;
+            } else if (opcionFormato.equals("2")) {
+                formato = ExportadorRegistro.Formato.JSONL;
+            } else {
+                System.out.println("Opcion no valida.");
+                return;
+            }
+
+            System.out.print("Archivo de destino: ");
+            String ruta = scanner.nextLine().trim();
+            if (ruta.isEmpty()) {
+                System.out.println("Exportación cancelada.");
+                return;
+            }
+
+            ExportadorRegistro exportador = new ExportadorRegistro(avance -> System.out.println("  ... " + avance));
+            ExportadorRegistro.Resultado resultado = exportador.exportar(servicio, Paths.get(ruta), formato);
+            System.out.println("Exportación finalizada: " + resultado);
+        } catch (Exception e) {
+            System.err.println("Error al exportar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Método auxiliar privado: Lista todas las mascotas activas de a TAMANO_PAGINA.
+     *
+     * @throws Exception Si hay error al obtener una página
+     */
+    private void listarMascotasPaginado() throws Exception {
+        listarPaginado(mascotaService, this::imprimirMascota, "No se encontraron mascotas.");
+    }
+
+    /**
+     * Método auxiliar privado: Lista todas las entidades activas de un servicio de a
+     * TAMANO_PAGINA, usando paginación por keyset (el id de la última entidad de cada página).
+     *
+     * @param servicio Servicio que provee las páginas (getPage)
+     * @param imprimir Imprime una entidad
+     * @param sinResultados Mensaje si no hay ninguna entidad
+     * @throws Exception Si hay error al obtener una página
+     */
+    private <T extends Base> void listarPaginado(GenericService<T> servicio, Consumer<T> imprimir,
+                                                 String sinResultados) throws Exception {
+        int ultimoId = 0;
+        boolean hayResultados = false;
+        while (true) {
+            List<T> pagina = servicio.getPage(ultimoId, TAMANO_PAGINA);
+            pagina.forEach(imprimir);
+            hayResultados |= !pagina.isEmpty();
+            if (pagina.size() < TAMANO_PAGINA || !continuarPaginando()) {
+                break;
+            }
+            ultimoId = pagina.get(pagina.size() - 1).getId();
+        }
+        if (!hayResultados) {
+            System.out.println(sinResultados);
+        }
+    }
+
+    /**
+     * Método auxiliar privado: Pregunta si se desea ver la página siguiente.
+     *
+     * @return true si el usuario presionó Enter, false si ingresó 'q'
+     */
+    private boolean continuarPaginando() {
+        System.out.print("-- Enter para ver mas, 'q' para terminar: ");
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
+    }
+
+    /**
+     * Método auxiliar privado: Imprime una mascota y su microchip (si tiene).
+     *
+     * @param m Mascota a imprimir
+     */
+    private void imprimirMascota(Mascota m) {
+        System.out.println("ID: " + m.getId() + ", Nombre: " + m.getNombre() +
+                ", Especie: " + m.getEspecie() + ", Codigo Tag: " + m.getCodigoTag());
+        if (m.getMicrochip() != null) {
+            System.out.println("   Microchip: " + m.getMicrochip().getCodigoChip() +
+                    " (Marca: " + m.getMicrochip().getMarca() + ")");
+        }
+    }
+
     /**
      * Método auxiliar privado: Crea un objeto Microchip capturando datos.
      *
@@ -0,0 +1,69 @@
+package Models;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Representación compacta de los códigos de microchip ISO 11784/11785 (FDX-B):
+ * 15 dígitos decimales (3 de país o fabricante + 12 de identificación).
+ *
+ * Un código de exactamente 15 dígitos entra en un long (menor a 10^15), así que
+ * Microchip guarda, junto al String, su forma numérica como clave primitiva: los
+ * índices por código (LongIntHashMap) no guardan un String por entrada (8 bytes en
+ * lugar de ~56) y equals/hashCode no recorren caracteres. Los ceros a la izquierda no
+ * se pierden porque el largo es fijo ("032..." se vuelve a formatear con su cero).
+ *
+ * Cualquier otro código (otro largo, letras, espacios) NO es numérico (NO_NUMERICO).
+ */
+public final class CodigoChip {
+    /** Cantidad de dígitos de un código ISO 11784/11785. */
+    public static final int DIGITOS_ISO = 15;
+
+    /** Valor de parse() y de Microchip.getCodigoNumerico() para códigos no numéricos. */
+    public static final long NO_NUMERICO = -1L;
+
+    /** Mayor código numérico representable (15 nueves). */
+    private static final long MAXIMO = 999_999_999_999_999L;
+
+    private CodigoChip() {
+    }
+
+    /**
+     * Convierte un código de exactamente 15 dígitos ASCII a long, sin crear objetos.
+     *
+     * @param codigo Código del microchip (puede ser null)
+     * @return Valor numérico (0 a 10^15 - 1), o NO_NUMERICO si el código no es ISO de 15 dígitos
+     */
+    public static long parse(String codigo) {
+        if (codigo == null || codigo.length() != DIGITOS_ISO) {
+            return NO_NUMERICO;
+        }
+        long valor = 0;
+        for (int i = 0; i < DIGITOS_ISO; i++) {
+            char c = codigo.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_NUMERICO;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    /**
+     * Formatea un código numérico como 15 dígitos, con ceros a la izquierda.
+     *
+     * @param valor Valor devuelto por parse()
+     * @return Código de 15 dígitos
+     * @throws IllegalArgumentException Si el valor no es un código numérico válido
+     */
+    public static String formatear(long valor) {
+        if (valor < 0 || valor > MAXIMO) {
+            throw new IllegalArgumentException("Código de microchip numérico inválido: " + valor);
+        }
+        byte[] digitos = new byte[DIGITOS_ISO];
+        for (int i = DIGITOS_ISO - 1; i >= 0; i--) {
+            digitos[i] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        }
+        return new String(digitos, StandardCharsets.ISO_8859_1);
+    }
+}
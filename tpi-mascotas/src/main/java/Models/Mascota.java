@@ -29,7 +29,7 @@ public class Mascota extends Base {
     /**
      * Código de Tag/Chapa (identificador único de la mascota).
      * Requerido, no puede ser null ni vacío.
-     * ÚNICO en el sistema (validado en BD y en MascotaServiceImpl.validateCodigoTagUnique()).
+     * ÚNICO en el sistema (constraint UNIQUE en BD, traducido a error de negocio por MascotaServiceImpl).
      */
     private String codigoTag;
 
@@ -19,11 +19,18 @@ import java.util.Objects;
  */
 public class Microchip extends Base {
     /**
-     * Código de identificación del microchip (ej: "900123456789012").
+     * Código de identificación único del microchip, tal cual se cargó.
      * Requerido, no puede ser null ni estar vacío.
      */
     private String codigoChip;
 
+    /**
+     * El mismo código como long si es ISO de 15 dígitos (ver CodigoChip), o
+     * CodigoChip.NO_NUMERICO. Clave primitiva para índices y equals/hashCode sin
+     * recorrer caracteres; se calcula al asignar el código.
+     */
+    private long codigoNumerico = CodigoChip.NO_NUMERICO;
+
     /**
      * Marca del fabricante del microchip.
      * Requerido, no puede ser null ni estar vacío.
@@ -40,7 +47,7 @@ public class Microchip extends Base {
      */
     public Microchip(int id, String codigoChip, String marca) {
         super(id, false); // Llama al constructor de Base con eliminado=false
-        this.codigoChip = codigoChip;
+        asignarCodigo(codigoChip);
         this.marca = marca;
     }
 
@@ -62,13 +69,29 @@ public class Microchip extends Base {
     }
 
     /**
-     * Establece el código del microchip.
+     * Establece el código del microchip (y su forma numérica, si es ISO de 15 dígitos).
      * Validación: MicrochipServiceImpl verifica que no esté vacío.
      *
      * @param codigoChip Nuevo código del microchip
      */
     public void setCodigoChip(String codigoChip) {
+        asignarCodigo(codigoChip);
+    }
+
+    /**
+     * Privado para que el constructor no llame a un método sobrescribible.
+     */
+    private void asignarCodigo(String codigoChip) {
         this.codigoChip = codigoChip;
+        this.codigoNumerico = CodigoChip.parse(codigoChip);
+    }
+
+    /**
+     * Obtiene el código como número, sin crear un String (para índices por long).
+     * @return Código ISO de 15 dígitos como long, o CodigoChip.NO_NUMERICO si no es numérico
+     */
+    public long getCodigoNumerico() {
+        return codigoNumerico;
     }
 
     /**
@@ -99,7 +122,7 @@ public class Microchip extends Base {
     public String toString() {
         return "Microchip{" +
                 "id=" + getId() +
-                ", codigoChip='" + codigoChip + '\'' +
+                ", codigoChip='" + getCodigoChip() + '\'' +
                 ", marca='" + marca + '\'' +
                 ", eliminado=" + isEliminado() +
                 '}';
@@ -118,17 +141,25 @@ public class Microchip extends Base {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Microchip microchip = (Microchip) o;
+        // Dos códigos numéricos son iguales si lo son sus long (15 dígitos fijos)
+        if (codigoNumerico != CodigoChip.NO_NUMERICO || microchip.codigoNumerico != CodigoChip.NO_NUMERICO) {
+            return codigoNumerico == microchip.codigoNumerico;
+        }
         return Objects.equals(codigoChip, microchip.codigoChip);
     }
 
     /**
      * Calcula el hash code basado en el código del chip.
      * Consistente con equals(): microchips con mismo código tienen mismo hash.
+     * Sin boxing: los códigos numéricos usan Long.hashCode.
      *
      * @return Hash code del microchip
      */
     @Override
     public int hashCode() {
-        return Objects.hash(codigoChip);
+        if (codigoNumerico != CodigoChip.NO_NUMERICO) {
+            return Long.hashCode(codigoNumerico);
+        }
+        return codigoChip != null ? codigoChip.hashCode() : 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Variante asíncrona de GenericService: cada operación devuelve un CompletableFuture
+ * en lugar de bloquear el hilo que llama.
+ *
+ * Los errores se reportan completando el future excepcionalmente con la misma excepción
+ * que lanzaría la versión bloqueante (IllegalArgumentException, SQLException, etc.,
+ * envuelta en CompletionException al usar join()).
+ *
+ * No incluye streamAll(): el Stream mantiene una conexión abierta mientras se consume,
+ * y eso no se puede entregar de forma segura a otro hilo.
+ *
+ * @param <T> Tipo de entidad
+ */
+public interface AsyncGenericService<T> {
+    CompletableFuture<Void> insertar(T entidad);
+    CompletableFuture<Void> actualizar(T entidad);
+    CompletableFuture<Void> eliminar(int id);
+    CompletableFuture<T> getById(int id);
+    CompletableFuture<Map<Integer, T>> getByIds(Collection<Integer> ids);
+    CompletableFuture<List<T>> getAll();
+    CompletableFuture<List<T>> getPage(int afterId, int limit);
+}
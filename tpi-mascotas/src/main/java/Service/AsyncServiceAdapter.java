@@ -0,0 +1,162 @@
+package Service;
+
+import Config.DatabaseConnection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adapta un GenericService bloqueante a AsyncGenericService.
+ *
+ * Cada operación se ejecuta en un hilo del executor y adquiere antes un permiso de un
+ * Semaphore justo con tantos permisos como conexiones tiene el pool (db.pool.max).
+ * Así miles de operaciones concurrentes esperan en el semáforo, sin timeout y en orden
+ * de llegada, en lugar de agotar db.pool.maxWaitMs compitiendo por el pool.
+ *
+ * Executor por defecto:
+ * - Un hilo virtual por tarea si la JVM los soporta (Java 21+): los hilos bloqueados
+ *   en el semáforo o en JDBC no ocupan hilos del sistema operativo
+ * - En JVMs anteriores, un pool fijo de hilos daemon del tamaño de la concurrencia máxima
+ *
+ * Ejemplo:
+ * <pre>
+ * AsyncGenericService&lt;Mascota&gt; async = new AsyncServiceAdapter&lt;&gt;(mascotaService);
+ * async.getById(42).thenAccept(m -&gt; ...);
+ * </pre>
+ *
+ * @param <T> Tipo de entidad
+ */
+public class AsyncServiceAdapter<T> implements AsyncGenericService<T>, AutoCloseable {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final GenericService<T> delegate;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    /**
+     * Crea el adaptador con concurrencia máxima = tamaño máximo del pool de conexiones.
+     *
+     * @param delegate Servicio bloqueante al que se delegan las operaciones
+     */
+    public AsyncServiceAdapter(GenericService<T> delegate) {
+        this(delegate, DatabaseConnection.getPoolMaxSize());
+    }
+
+    /**
+     * @param delegate Servicio bloqueante al que se delegan las operaciones
+     * @param maxConcurrency Operaciones ejecutándose a la vez contra el servicio (mayor a 0)
+     * @throws IllegalArgumentException Si delegate es null o maxConcurrency <= 0
+     */
+    public AsyncServiceAdapter(GenericService<T> delegate, int maxConcurrency) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("El servicio no puede ser null");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("La concurrencia máxima debe ser mayor a 0");
+        }
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.executor = newDefaultExecutor(maxConcurrency);
+    }
+
+    @Override
+    public CompletableFuture<Void> insertar(T entidad) {
+        return submit(() -> {
+            delegate.insertar(entidad);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> actualizar(T entidad) {
+        return submit(() -> {
+            delegate.actualizar(entidad);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> eliminar(int id) {
+        return submit(() -> {
+            delegate.eliminar(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<T> getById(int id) {
+        return submit(() -> delegate.getById(id));
+    }
+
+    @Override
+    public CompletableFuture<Map<Integer, T>> getByIds(Collection<Integer> ids) {
+        return submit(() -> delegate.getByIds(ids));
+    }
+
+    @Override
+    public CompletableFuture<List<T>> getAll() {
+        return submit(delegate::getAll);
+    }
+
+    @Override
+    public CompletableFuture<List<T>> getPage(int afterId, int limit) {
+        return submit(() -> delegate.getPage(afterId, limit));
+    }
+
+    /**
+     * Detiene el executor. Las operaciones ya encoladas terminan; las nuevas se rechazan.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Ejecuta la operación en el executor, acotada por el semáforo.
+     * Las excepciones de la operación completan el future excepcionalmente.
+     */
+    protected <R> CompletableFuture<R> submit(Callable<R> operacion) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return operacion.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Executor de un hilo virtual por tarea si existe Executors.newVirtualThreadPerTaskExecutor
+     * (Java 21+, se busca por reflexión porque el proyecto compila con Java 17);
+     * si no, un pool fijo de hilos daemon.
+     */
+    private static ExecutorService newDefaultExecutor(int maxConcurrency) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(maxConcurrency, r -> {
+                Thread t = new Thread(r, "async-service-" + THREAD_COUNTER.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package Service;
+
+import Dao.VisitanteFilas;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Exporta una tabla completa (mascotas o microchips activos) a CSV o JSON Lines.
+ *
+ * Las filas llegan del cursor del servidor (GenericService.recorrerFilas) como valores
+ * de columna, sin crear entidades ni listas, y se codifican en UTF-8 directamente en
+ * un ByteBuffer que se vuelca a un FileChannel cada vez que se llena: la memoria usada
+ * es constante sin importar el tamaño de la tabla (apto para volcados nocturnos).
+ *
+ * Se escribe en un archivo temporal (destino + ".tmp") que al terminar reemplaza al
+ * destino: un volcado interrumpido nunca deja un archivo de exportación a medias.
+ */
+public class ExportadorRegistro {
+    /** Tamaño del buffer de escritura en bytes. Configurable via -Dexport.bufferSize */
+    private static final int BUFFER_SIZE = Integer.getInteger("export.bufferSize", 256 * 1024);
+
+    /** Cada cuántas filas se informa el progreso. Configurable via -Dexport.progressEvery */
+    private static final long PROGRESO_CADA = Long.getLong("export.progressEvery", 100_000L);
+
+    /**
+     * Formato de salida.
+     */
+    public enum Formato {
+        /** Encabezado con los nombres de columna; valores nulos como campo vacío. */
+        CSV,
+        /** Un objeto JSON por línea, con los nombres de columna como claves. */
+        JSONL
+    }
+
+    private final Consumer<Resultado> progreso;
+
+    /**
+     * @param progreso Recibe el avance cada export.progressEvery filas (puede ser null)
+     */
+    public ExportadorRegistro(Consumer<Resultado> progreso) {
+        this.progreso = progreso;
+    }
+
+    /**
+     * Exporta todas las filas activas del servicio al archivo destino.
+     *
+     * @param servicio Servicio de la tabla a exportar (MascotaServiceImpl o MicrochipServiceImpl)
+     * @param destino Archivo de salida (se reemplaza si existe)
+     * @param formato CSV o JSONL
+     * @return Filas y bytes escritos, duración y filas por segundo
+     * @throws IllegalArgumentException Si algún parámetro es null
+     * @throws Exception Si hay error de BD o de escritura (el destino no se modifica)
+     */
+    public Resultado exportar(GenericService<?> servicio, Path destino, Formato formato) throws Exception {
+        if (servicio == null || destino == null || formato == null) {
+            throw new IllegalArgumentException("El servicio, el destino y el formato no pueden ser null");
+        }
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        long inicio = System.nanoTime();
+
+        Escritor escritor;
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escritor = new Escritor(canal, formato, inicio);
+            servicio.recorrerFilas(escritor);
+            escritor.vaciar();
+            canal.force(false);
+        } catch (Exception e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return escritor.resultado();
+    }
+
+    /**
+     * Visitante que da formato a cada fila y la codifica en el buffer del canal.
+     * Reutiliza el mismo StringBuilder, CharBuffer y ByteBuffer en todas las filas.
+     */
+    private final class Escritor implements VisitanteFilas {
+        private final FileChannel canal;
+        private final Formato formato;
+        private final long inicio;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final StringBuilder linea = new StringBuilder(256);
+        private String[] columnas;
+        private long filas;
+        private long bytes;
+
+        private Escritor(FileChannel canal, Formato formato, long inicio) {
+            this.canal = canal;
+            this.formato = formato;
+            this.inicio = inicio;
+        }
+
+        @Override
+        public void inicio(String[] columnas) throws IOException {
+            this.columnas = columnas;
+            if (formato == Formato.CSV) {
+                linea.setLength(0);
+                for (int i = 0; i < columnas.length; i++) {
+                    if (i > 0) {
+                        linea.append(',');
+                    }
+                    linea.append(columnas[i]);
+                }
+                escribirLinea();
+            }
+        }
+
+        @Override
+        public void fila(Object[] valores) throws IOException {
+            linea.setLength(0);
+            if (formato == Formato.CSV) {
+                for (int i = 0; i < valores.length; i++) {
+                    if (i > 0) {
+                        linea.append(',');
+                    }
+                    agregarCsv(valores[i]);
+                }
+            } else {
+                linea.append('{');
+                for (int i = 0; i < valores.length; i++) {
+                    if (i > 0) {
+                        linea.append(',');
+                    }
+                    agregarJson(columnas[i]);
+                    linea.append(':');
+                    if (valores[i] == null || valores[i] instanceof Number) {
+                        linea.append(valores[i]);
+                    } else {
+                        agregarJson(valores[i].toString());
+                    }
+                }
+                linea.append('}');
+            }
+            escribirLinea();
+
+            filas++;
+            if (progreso != null && PROGRESO_CADA > 0 && filas % PROGRESO_CADA == 0) {
+                progreso.accept(resultado());
+            }
+        }
+
+        private void agregarCsv(Object valor) {
+            if (valor == null) {
+                return;
+            }
+            String texto = valor.toString();
+            boolean requiereComillas = false;
+            for (int i = 0; i < texto.length() && !requiereComillas; i++) {
+                char c = texto.charAt(i);
+                requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!requiereComillas) {
+                linea.append(texto);
+                return;
+            }
+            linea.append('"');
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c == '"') {
+                    linea.append('"');
+                }
+                linea.append(c);
+            }
+            linea.append('"');
+        }
+
+        private void agregarJson(String texto) {
+            linea.append('"');
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                switch (c) {
+                    case '"' -> linea.append("\\\"");
+                    case '\\' -> linea.append("\\\\");
+                    case '\n' -> linea.append("\\n");
+                    case '\r' -> linea.append("\\r");
+                    case '\t' -> linea.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            linea.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            linea.append(c);
+                        }
+                    }
+                }
+            }
+            linea.append('"');
+        }
+
+        /**
+         * Codifica la línea actual (más el salto de línea) en el buffer, volcándolo al
+         * canal cada vez que se llena.
+         */
+        private void escribirLinea() throws IOException {
+            linea.append('\n');
+            CharBuffer caracteres = CharBuffer.wrap(linea);
+            while (true) {
+                CoderResult resultado = encoder.encode(caracteres, buffer, true);
+                if (resultado.isOverflow()) {
+                    vaciar();
+                } else if (resultado.isError()) {
+                    resultado.throwException();
+                } else {
+                    break;
+                }
+            }
+            encoder.reset();
+        }
+
+        private void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                bytes += canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private Resultado resultado() {
+            return new Resultado(filas, bytes + buffer.position(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        }
+    }
+
+    /**
+     * Avance o resultado final de una exportación.
+     */
+    public static final class Resultado {
+        private final long filas;
+        private final long bytes;
+        private final long duracionMs;
+
+        private Resultado(long filas, long bytes, long duracionMs) {
+            this.filas = filas;
+            this.bytes = bytes;
+            this.duracionMs = duracionMs;
+        }
+
+        public long getFilas() {
+            return filas;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getDuracionMs() {
+            return duracionMs;
+        }
+
+        /**
+         * @return Filas exportadas por segundo (0 si todavía no pasó tiempo medible)
+         */
+        public long getFilasPorSegundo() {
+            return duracionMs > 0 ? filas * 1000 / duracionMs : 0;
+        }
+
+        @Override
+        public String toString() {
+            return filas + " fila(s), " + (bytes / 1024) + " KiB en " + duracionMs + " ms ("
+                    + getFilasPorSegundo() + " filas/s)";
+        }
+    }
+}
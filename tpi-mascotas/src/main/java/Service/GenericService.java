@@ -1,11 +1,20 @@
 package Service;
 
+import Dao.VisitanteFilas;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface GenericService<T> {
     void insertar(T entidad) throws Exception;
     void actualizar(T entidad) throws Exception;
     void eliminar(int id) throws Exception;
     T getById(int id) throws Exception;
+    Map<Integer, T> getByIds(Collection<Integer> ids) throws Exception;
     List<T> getAll() throws Exception;
+    Stream<T> streamAll() throws Exception;
+    long recorrerFilas(VisitanteFilas visitante) throws Exception;
+    List<T> getPage(int afterId, int limit) throws Exception;
 }
@@ -0,0 +1,526 @@
+package Service;
+
+import Dao.BatchInsertException;
+import Models.Mascota;
+import Models.Microchip;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Importación masiva de mascotas (con microchip opcional) desde un archivo CSV.
+ *
+ * Formato: una mascota por línea, separada por comas y en UTF-8:
+ * nombre,especie,codigo_tag[,codigo_chip,marca]
+ * Los campos pueden ir entre comillas dobles ("" dentro de comillas = una comilla).
+ * Se omiten las líneas vacías y una primera línea de encabezado con exactamente esos
+ * nombres de columna (sin distinguir mayúsculas): nombre,especie,codigo_tag[,codigo_chip,marca].
+ *
+ * Etapas (cada una en sus propios hilos, unidas por colas acotadas para que el
+ * parser nunca lea más rápido de lo que la BD puede escribir):
+ * 1. Parser (1 hilo): lee el archivo en streaming y separa los campos
+ * 2. Validación (import.validators hilos): arma Mascota/Microchip y aplica las mismas
+ *    reglas que MascotaServiceImpl/MicrochipServiceImpl
+ * 3. Deduplicación (1 hilo): descarta los CodigoTag repetidos dentro del archivo
+ *    (gana la primera aparición que llega a esta etapa) y agrupa en lotes
+ * 4. Escritura (import.writers hilos): cada lote se inserta en UNA transacción
+ *    (MascotaServiceImpl.insertarLote). Si el lote falla por una fila (por ejemplo, un
+ *    CodigoTag ya registrado en la BD) se reintenta fila por fila para aislarla
+ *
+ * Las filas inválidas no abortan la importación: se escriben en un archivo de rechazos
+ * (archivo + ".rechazos.csv") con el número de línea, el motivo y la línea original.
+ * Un error que no es de la fila (BD caída, error de E/S) sí la interrumpe; los lotes
+ * ya confirmados quedan registrados.
+ */
+public class ImportadorCsv {
+    /** Filas por lote (y por transacción) de inserción. Configurable via -Dimport.batchSize */
+    private static final int DEFAULT_BATCH_SIZE = Integer.getInteger("import.batchSize", 500);
+
+    /** Hilos de validación. Configurable via -Dimport.validators */
+    private static final int DEFAULT_VALIDADORES = Integer.getInteger("import.validators",
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    /** Hilos de escritura (cada uno usa una conexión del pool). Configurable via -Dimport.writers */
+    private static final int DEFAULT_ESCRITORES = Integer.getInteger("import.writers", 2);
+
+    /** Bloques en espera en cada cola entre etapas. Configurable via -Dimport.queueCapacity */
+    private static final int CAPACIDAD_COLA = Integer.getInteger("import.queueCapacity", 16);
+
+    /** Columnas del encabezado opcional (las dos últimas pueden faltar). */
+    private static final List<String> ENCABEZADO = List.of("nombre", "especie", "codigo_tag", "codigo_chip", "marca");
+
+    /** Filas por bloque entre el parser y la validación. */
+    private static final int FILAS_POR_BLOQUE = 256;
+
+    /** Fin de datos: se compara por identidad, una marca por cada hilo consumidor. */
+    private static final List<Fila> FIN = new ArrayList<>(0);
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final MascotaServiceImpl mascotaService;
+    private final int batchSize;
+    private final int validadores;
+    private final int escritores;
+
+    /**
+     * Crea el importador con la configuración por defecto (-Dimport.*).
+     *
+     * @param mascotaService Servicio con el que se validan e insertan las mascotas
+     */
+    public ImportadorCsv(MascotaServiceImpl mascotaService) {
+        this(mascotaService, DEFAULT_BATCH_SIZE, DEFAULT_VALIDADORES, DEFAULT_ESCRITORES);
+    }
+
+    /**
+     * @param mascotaService Servicio con el que se validan e insertan las mascotas
+     * @param batchSize Filas por lote de inserción (mayor a 0)
+     * @param validadores Hilos de validación (mayor a 0)
+     * @param escritores Hilos de escritura (mayor a 0)
+     * @throws IllegalArgumentException Si mascotaService es null o algún tamaño es <= 0
+     */
+    public ImportadorCsv(MascotaServiceImpl mascotaService, int batchSize, int validadores, int escritores) {
+        if (mascotaService == null) {
+            throw new IllegalArgumentException("MascotaServiceImpl no puede ser null");
+        }
+        if (batchSize <= 0 || validadores <= 0 || escritores <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote y la cantidad de hilos deben ser mayores a 0");
+        }
+        this.mascotaService = mascotaService;
+        this.batchSize = batchSize;
+        this.validadores = validadores;
+        this.escritores = escritores;
+    }
+
+    /**
+     * Importa el archivo completo. Bloquea hasta que terminan todas las etapas.
+     *
+     * @param archivo CSV a importar
+     * @return Totales de la importación y archivo de rechazos (null si no hubo rechazos)
+     * @throws IllegalArgumentException Si el archivo es null o no existe
+     * @throws Exception Si la importación se interrumpe por un error que no es de una fila
+     */
+    public Resultado importar(Path archivo) throws Exception {
+        if (archivo == null || !Files.isRegularFile(archivo)) {
+            throw new IllegalArgumentException("No existe el archivo a importar: " + archivo);
+        }
+        Path archivoRechazos = archivo.resolveSibling(archivo.getFileName() + ".rechazos.csv");
+        long inicio = System.nanoTime();
+
+        try (Ejecucion ejecucion = new Ejecucion(archivo, archivoRechazos)) {
+            ejecucion.ejecutar();
+            Resultado resultado = new Resultado(ejecucion.leidas.get(), ejecucion.importadas.get(),
+                    ejecucion.rechazadas.get(), ejecucion.rechazadas.get() > 0 ? archivoRechazos : null,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            if (resultado.getRechazadas() == 0) {
+                ejecucion.descartarRechazos();
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Estado de una importación en curso: colas, contadores y archivo de rechazos.
+     */
+    private final class Ejecucion implements AutoCloseable {
+        private final Path archivo;
+        private final Path archivoRechazos;
+        private final BufferedWriter rechazos;
+
+        private final BlockingQueue<List<Fila>> colaLeidas = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        private final BlockingQueue<List<Fila>> colaValidadas = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        private final BlockingQueue<List<Fila>> colaLotes = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+
+        private final AtomicLong leidas = new AtomicLong();
+        private final AtomicLong importadas = new AtomicLong();
+        private final AtomicLong rechazadas = new AtomicLong();
+
+        /** Primer error que interrumpió la importación (null si ninguno). */
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        private final ExecutorService executor = Executors.newFixedThreadPool(2 + validadores + escritores, r -> {
+            Thread t = new Thread(r, "import-csv-" + THREAD_COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        private Ejecucion(Path archivo, Path archivoRechazos) throws IOException {
+            this.archivo = archivo;
+            this.archivoRechazos = archivoRechazos;
+            this.rechazos = Files.newBufferedWriter(archivoRechazos, StandardCharsets.UTF_8);
+            rechazos.write("linea,motivo,contenido");
+            rechazos.newLine();
+        }
+
+        private void ejecutar() throws Exception {
+            executor.execute(() -> etapa(this::leer));
+            for (int i = 0; i < validadores; i++) {
+                executor.execute(() -> etapa(this::validar));
+            }
+            executor.execute(() -> etapa(this::deduplicar));
+            for (int i = 0; i < escritores; i++) {
+                executor.execute(() -> etapa(this::escribir));
+            }
+
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Espera a que terminen todas las etapas (o a que una falle y cancele el resto)
+            }
+
+            Throwable causa = error.get();
+            if (causa != null) {
+                throw new Exception("Importación interrumpida (" + importadas.get()
+                        + " mascota(s) ya importadas): " + causa.getMessage(), causa);
+            }
+        }
+
+        /**
+         * Ejecuta una etapa. Si falla, registra el error e interrumpe al resto de los hilos
+         * (que pueden estar bloqueados en una cola).
+         */
+        private void etapa(Etapa etapa) {
+            try {
+                etapa.ejecutar();
+            } catch (InterruptedException e) {
+                // Cancelada porque otra etapa falló
+            } catch (Throwable t) {
+                if (error.compareAndSet(null, t)) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+
+        /**
+         * Etapa 1: lee el archivo línea por línea y separa los campos, en bloques.
+         */
+        private void leer() throws IOException, InterruptedException {
+            try (BufferedReader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+                List<Fila> bloque = new ArrayList<>(FILAS_POR_BLOQUE);
+                long numeroLinea = 0;
+                boolean primera = true;
+                String linea;
+                while ((linea = reader.readLine()) != null) {
+                    numeroLinea++;
+                    // Marca de orden de bytes (BOM) de archivos UTF-8 exportados desde Excel
+                    if (primera && !linea.isEmpty() && linea.charAt(0) == '\uFEFF') {
+                        linea = linea.substring(1);
+                    }
+                    if (linea.trim().isEmpty()) {
+                        continue;
+                    }
+                    boolean encabezado = primera && esEncabezado(linea);
+                    primera = false;
+                    if (encabezado) {
+                        continue;
+                    }
+
+                    leidas.incrementAndGet();
+                    Fila fila = new Fila(numeroLinea, linea);
+                    try {
+                        fila.campos = separarCampos(linea);
+                    } catch (IllegalArgumentException e) {
+                        rechazar(fila, e.getMessage());
+                        continue;
+                    }
+                    bloque.add(fila);
+                    if (bloque.size() == FILAS_POR_BLOQUE) {
+                        colaLeidas.put(bloque);
+                        bloque = new ArrayList<>(FILAS_POR_BLOQUE);
+                    }
+                }
+                if (!bloque.isEmpty()) {
+                    colaLeidas.put(bloque);
+                }
+            }
+            for (int i = 0; i < validadores; i++) {
+                colaLeidas.put(FIN);
+            }
+        }
+
+        /**
+         * Etapa 2: arma y valida cada mascota; las filas inválidas van a rechazos.
+         */
+        private void validar() throws IOException, InterruptedException {
+            List<Fila> bloque;
+            while ((bloque = colaLeidas.take()) != FIN) {
+                List<Fila> validas = new ArrayList<>(bloque.size());
+                for (Fila fila : bloque) {
+                    try {
+                        fila.mascota = crearMascota(fila.campos);
+                        validas.add(fila);
+                    } catch (IllegalArgumentException e) {
+                        rechazar(fila, e.getMessage());
+                    }
+                }
+                if (!validas.isEmpty()) {
+                    colaValidadas.put(validas);
+                }
+            }
+            colaValidadas.put(FIN);
+        }
+
+        /**
+         * Etapa 3: descarta los CodigoTag ya vistos en el archivo y agrupa en lotes de batchSize.
+         * Es un único hilo, así el conjunto de CodigoTag vistos no necesita sincronización.
+         */
+        private void deduplicar() throws IOException, InterruptedException {
+            Set<String> tagsVistos = new HashSet<>();
+            List<Fila> lote = new ArrayList<>(batchSize);
+            int finesPendientes = validadores;
+            while (finesPendientes > 0) {
+                List<Fila> bloque = colaValidadas.take();
+                if (bloque == FIN) {
+                    finesPendientes--;
+                    continue;
+                }
+                for (Fila fila : bloque) {
+                    if (!tagsVistos.add(fila.mascota.getCodigoTag().toLowerCase(Locale.ROOT))) {
+                        rechazar(fila, "CodigoTag repetido en el archivo: " + fila.mascota.getCodigoTag());
+                        continue;
+                    }
+                    lote.add(fila);
+                    if (lote.size() == batchSize) {
+                        colaLotes.put(lote);
+                        lote = new ArrayList<>(batchSize);
+                    }
+                }
+            }
+            if (!lote.isEmpty()) {
+                colaLotes.put(lote);
+            }
+            for (int i = 0; i < escritores; i++) {
+                colaLotes.put(FIN);
+            }
+        }
+
+        /**
+         * Etapa 4: inserta cada lote en una transacción; si el lote falla por una fila,
+         * lo reintenta fila por fila y rechaza solo las que fallan.
+         */
+        private void escribir() throws Exception {
+            List<Fila> lote;
+            while ((lote = colaLotes.take()) != FIN) {
+                List<Mascota> mascotas = new ArrayList<>(lote.size());
+                for (Fila fila : lote) {
+                    mascotas.add(fila.mascota);
+                }
+                try {
+                    mascotaService.insertarLote(mascotas);
+                    importadas.addAndGet(mascotas.size());
+                } catch (BatchInsertException e) {
+                    insertarFilaPorFila(lote);
+                }
+            }
+        }
+
+        private void insertarFilaPorFila(List<Fila> lote) throws Exception {
+            for (Fila fila : lote) {
+                try {
+                    mascotaService.insertar(fila.mascota);
+                    importadas.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rechazar(fila, e.getMessage());
+                } catch (SQLException e) {
+                    if (!esErrorDeLaFila(e)) {
+                        throw e;
+                    }
+                    rechazar(fila, e.getMessage());
+                }
+            }
+        }
+
+        private void rechazar(Fila fila, String motivo) throws IOException {
+            rechazadas.incrementAndGet();
+            synchronized (rechazos) {
+                rechazos.write(fila.numeroLinea + "," + comillas(motivo) + "," + comillas(fila.original));
+                rechazos.newLine();
+            }
+        }
+
+        private void descartarRechazos() throws IOException {
+            rechazos.close();
+            Files.deleteIfExists(archivoRechazos);
+        }
+
+        @Override
+        public void close() throws IOException {
+            executor.shutdownNow();
+            rechazos.close();
+        }
+    }
+
+    /**
+     * Arma la mascota de una fila y le aplica las validaciones del servicio.
+     *
+     * @throws IllegalArgumentException Si la cantidad de campos es incorrecta o la validación falla
+     */
+    private Mascota crearMascota(String[] campos) {
+        if (campos.length != 3 && campos.length != 5) {
+            throw new IllegalArgumentException("Se esperaban 3 o 5 campos y hay " + campos.length);
+        }
+        Mascota mascota = new Mascota(0, campos[0].trim(), campos[1].trim(), campos[2].trim());
+        if (campos.length == 5 && !(campos[3].trim().isEmpty() && campos[4].trim().isEmpty())) {
+            Microchip microchip = new Microchip(0, campos[3].trim(), campos[4].trim());
+            mascotaService.getMicrochipService().validateMicrochip(microchip);
+            mascota.setMicrochip(microchip);
+        }
+        mascotaService.validateMascota(mascota);
+        return mascota;
+    }
+
+    /**
+     * @return true si la línea son exactamente las columnas del encabezado (3 o 5);
+     *         una mascota llamada "Nombre" no lo es, porque el resto de los campos no coincide
+     */
+    private static boolean esEncabezado(String linea) {
+        String[] campos;
+        try {
+            campos = separarCampos(linea);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (campos.length != 3 && campos.length != ENCABEZADO.size()) {
+            return false;
+        }
+        for (int i = 0; i < campos.length; i++) {
+            if (!campos[i].trim().equalsIgnoreCase(ENCABEZADO.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Separa una línea CSV en campos (comillas dobles opcionales, "" escapa una comilla).
+     *
+     * @throws IllegalArgumentException Si una comilla queda sin cerrar
+     */
+    private static String[] separarCampos(String linea) {
+        List<String> campos = new ArrayList<>(5);
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comilla sin cerrar");
+        }
+        campos.add(actual.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Un error de datos o de integridad (SQLState clase 22 o 23) es de la fila;
+     * cualquier otro (conexión, timeout) interrumpe la importación.
+     */
+    private static boolean esErrorDeLaFila(SQLException e) {
+        String sqlState = e.getSQLState();
+        return sqlState != null && (sqlState.startsWith("22") || sqlState.startsWith("23"));
+    }
+
+    private static String comillas(String valor) {
+        return "\"" + (valor == null ? "" : valor.replace("\"", "\"\"")) + "\"";
+    }
+
+    @FunctionalInterface
+    private interface Etapa {
+        void ejecutar() throws Exception;
+    }
+
+    /**
+     * Línea del archivo en tránsito entre etapas.
+     */
+    private static final class Fila {
+        private final long numeroLinea;
+        private final String original;
+        private String[] campos;
+        private Mascota mascota;
+
+        private Fila(long numeroLinea, String original) {
+            this.numeroLinea = numeroLinea;
+            this.original = original;
+        }
+    }
+
+    /**
+     * Totales de una importación terminada.
+     */
+    public static final class Resultado {
+        private final long leidas;
+        private final long importadas;
+        private final long rechazadas;
+        private final Path archivoRechazos;
+        private final long duracionMs;
+
+        private Resultado(long leidas, long importadas, long rechazadas, Path archivoRechazos, long duracionMs) {
+            this.leidas = leidas;
+            this.importadas = importadas;
+            this.rechazadas = rechazadas;
+            this.archivoRechazos = archivoRechazos;
+            this.duracionMs = duracionMs;
+        }
+
+        public long getLeidas() {
+            return leidas;
+        }
+
+        public long getImportadas() {
+            return importadas;
+        }
+
+        public long getRechazadas() {
+            return rechazadas;
+        }
+
+        /**
+         * @return Archivo con las filas rechazadas, o null si no hubo rechazos
+         */
+        public Path getArchivoRechazos() {
+            return archivoRechazos;
+        }
+
+        public long getDuracionMs() {
+            return duracionMs;
+        }
+
+        @Override
+        public String toString() {
+            return "Filas leídas: " + leidas + ", importadas: " + importadas + ", rechazadas: " + rechazadas
+                    + " (" + duracionMs + " ms)";
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché en memoria acotada por tamaño (LRU) con expiración opcional por tiempo (TTL).
+ * Usada por la capa Service para servir lecturas frecuentes sin ir a la BD.
+ *
+ * Características:
+ * - Desaloja la entrada menos usada recientemente al superar maxSize
+ * - Las entradas más viejas que ttlMillis se consideran ausentes (ttlMillis <= 0: sin TTL)
+ * - Contadores de aciertos, fallos y desalojos (por tamaño o por expiración)
+ * - Thread-safe (métodos synchronized)
+ *
+ * NO guarda valores null: una clave ausente siempre es un fallo.
+ *
+ * @param <K> Tipo de la clave
+ * @param <V> Tipo del valor
+ */
+public class LruCache<K, V> {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxSize Cantidad máxima de entradas (mayor a 0)
+     * @param ttlMillis Tiempo de vida de cada entrada en ms (<= 0 para no expirar)
+     * @throws IllegalArgumentException si maxSize <= 0
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser mayor a 0");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param key Clave a buscar
+     * @return Valor cacheado, o null si no está o expiró
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (ttlMillis > 0 && System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Guarda (o reemplaza) un valor. Los valores null se ignoran.
+     */
+    public synchronized void put(K key, V value) {
+        if (value != null) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Elimina una entrada (por ejemplo, tras modificar la entidad en la BD).
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Elimina todas las entradas. Los contadores se conservan.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LruCache{" +
+                "size=" + entries.size() + "/" + maxSize +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    /**
+     * Valor cacheado junto con su instante de creación (para el TTL).
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
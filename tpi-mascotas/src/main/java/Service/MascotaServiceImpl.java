@@ -1,9 +1,22 @@
 package Service;
 
-import Dao.MascotaDAO;
+import Dao.GenericMascotaDAO;
+import Dao.LongIntHashMap;
+import Dao.VisitanteFilas;
+import Models.CodigoChip;
 import Models.Mascota;
+import Models.Microchip;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de negocio para la entidad Mascota.
@@ -11,24 +24,138 @@ import java.util.List;
  *
  * Responsabilidades:
  * - Validar datos de mascota ANTES de persistir (RN-035: nombre, especie, codigo_tag obligatorios)
- * - Garantizar unicidad del CodigoTag en el sistema (RN-001)
+ * - Garantizar unicidad del CodigoTag en el sistema (RN-001, vía constraint UNIQUE de la BD)
  * - COORDINAR operaciones entre Mascota y Microchip (transaccionales)
  * - Proporcionar métodos de búsqueda especializados (por CodigoTag, nombre/especie)
  * - Implementar eliminación SEGURA de microchips (evita FKs huérfanas)
+ * - Servir getById/buscarPorCodigoTag desde una caché LRU (read-through) invalidada en cada escritura
+ * - Responder sin consultar la BD los CodigoTag inexistentes (filtro de Bloom, TagBloomFilter)
+ * - Resolver codigo_chip → mascota desde un índice en memoria opcional (-Dcache.chipIndex)
+ * - Listar las mascotas de un microchip (índice inverso, cacheado) para evaluar el impacto de cambiarlo
  *
  * Patrón: Service Layer con inyección de dependencias y coordinación de servicios
  */
 public class MascotaServiceImpl implements GenericService<Mascota> {
+    /**
+     * SQLState estándar de violación de integridad (UNIQUE, FK, NOT NULL).
+     */
+    private static final String SQLSTATE_INTEGRITY_VIOLATION = "23000";
+
+    /**
+     * Código de error de MySQL para clave duplicada (ER_DUP_ENTRY).
+     */
+    private static final int MYSQL_ERROR_DUPLICATE_ENTRY = 1062;
+
+    /** Entradas máximas de cada caché. Configurable via -Dcache.mascotas.maxSize */
+    private static final int CACHE_MAX_SIZE = Integer.getInteger("cache.mascotas.maxSize", 10_000);
+
+    /** Tiempo de vida de las entradas cacheadas. Configurable via -Dcache.mascotas.ttlMs (0 = sin TTL) */
+    private static final long CACHE_TTL_MS = Long.getLong("cache.mascotas.ttlMs", 60_000L);
+
+    /** Habilita el filtro de Bloom de CodigoTag. Configurable via -Dcache.tagFilter */
+    private static final boolean TAG_FILTER_ENABLED = Boolean.parseBoolean(System.getProperty("cache.tagFilter", "true"));
+
+    /** CodigoTag esperados como mínimo al dimensionar el filtro. Configurable via -Dcache.tagFilter.expected */
+    private static final long TAG_FILTER_EXPECTED = Long.getLong("cache.tagFilter.expected", 100_000L);
+
+    /** Probabilidad de falso positivo del filtro. Configurable via -Dcache.tagFilter.fpp */
+    private static final double TAG_FILTER_FPP = Double.parseDouble(System.getProperty("cache.tagFilter.fpp", "0.01"));
+
+    /** Habilita el índice en memoria codigo_chip → mascota. Configurable via -Dcache.chipIndex */
+    private static final boolean CHIP_INDEX_ENABLED = Boolean.parseBoolean(System.getProperty("cache.chipIndex", "false"));
+
+    /** Entradas esperadas del índice de microchips al construirlo. Configurable via -Dcache.chipIndex.expected */
+    private static final int CHIP_INDEX_EXPECTED = Integer.getInteger("cache.chipIndex.expected", 100_000);
+
+    /** Valor del índice de microchips para un código compartido por varias mascotas (RN-040). */
+    private static final int VARIAS_MASCOTAS = -1;
+
+    /** Intentos de construcción del índice de microchips si hay escrituras durante el recorrido. */
+    private static final int CHIP_INDEX_INTENTOS = 3;
+
     /**
      * DAO para acceso a datos de mascotas.
      */
-    private final MascotaDAO mascotaDAO;
+    private final GenericMascotaDAO mascotaDAO;
 
     /**
      * Servicio de microchips para coordinar operaciones transaccionales.
      */
     private final MicrochipServiceImpl microchipServiceImpl;
 
+    /**
+     * Caché read-through de mascotas por ID. Guarda copias: los objetos devueltos
+     * pueden modificarse libremente sin alterar la caché.
+     */
+    private final LruCache<Integer, Mascota> cachePorId = new LruCache<>(CACHE_MAX_SIZE, CACHE_TTL_MS);
+
+    /**
+     * Caché de CodigoTag → ID de mascota. La mascota se resuelve luego por cachePorId
+     * y se verifica que el CodigoTag siga coincidiendo (cubre cambios de tag y bajas).
+     */
+    private final LruCache<String, Integer> cachePorTag = new LruCache<>(CACHE_MAX_SIZE, CACHE_TTL_MS);
+
+    /**
+     * Se incrementa en cada invalidación de cachePorId: una mascota leída de la BD antes
+     * de la escritura (con datos viejos, o ya dada de baja) no se cachea. Protegido por
+     * lockPorId; también cubre a cachePorTag, que se carga junto con cachePorId.
+     */
+    private long generacionPorId;
+    private final Object lockPorId = new Object();
+
+    /**
+     * Caché inversa microchip_id → ids de sus mascotas. Se invalida al asociar una mascota
+     * a un microchip; las mascotas se resuelven por cachePorId y se verifica que sigan
+     * apuntando al microchip (cubre bajas y cambios de microchip).
+     */
+    private final LruCache<Integer, List<Integer>> cachePorMicrochip = new LruCache<>(CACHE_MAX_SIZE, CACHE_TTL_MS);
+
+    /**
+     * Se incrementa en cada invalidación de cachePorMicrochip: una lista leída de la BD
+     * antes de la escritura (a la que le puede faltar la mascota recién asociada) no se
+     * cachea. Protegido por lockPorMicrochip.
+     */
+    private long generacionPorMicrochip;
+    private final Object lockPorMicrochip = new Object();
+
+    /**
+     * Filtro de Bloom de los CodigoTag activos (null = sin filtro: se consulta siempre la BD).
+     * Se construye con construirFiltroTags() y se le agrega cada CodigoTag ANTES de escribirlo:
+     * si la escritura falla queda un bit de más (falso positivo), nunca un falso negativo.
+     * Tras una escritura exitosa se vuelve a agregar: una reconstrucción que empezó entre
+     * el primer registro y el COMMIT no vio el tag ni en la BD ni en filtroEnConstruccion.
+     */
+    private volatile TagBloomFilter filtroTags;
+
+    /** Filtro que se está reconstruyendo; recibe también los CodigoTag escritos mientras tanto. */
+    private volatile TagBloomFilter filtroEnConstruccion;
+
+    /** Bajas y cambios de CodigoTag desde la última construcción (bits obsoletos). */
+    private final AtomicLong tagsObsoletos = new AtomicLong();
+
+    /** Consultas por CodigoTag respondidas por el filtro sin ir a la BD. */
+    private final AtomicLong descartesFiltro = new AtomicLong();
+
+    private final AtomicBoolean reconstruyendoFiltro = new AtomicBoolean();
+
+    /**
+     * Índice opcional codigo_chip numérico (ISO de 15 dígitos, ver CodigoChip) → id de la
+     * mascota con ese microchip, o VARIAS_MASCOTAS (null = desactivado).
+     * Es una pista: cada acierto se verifica contra la mascota (caché por ID); las entradas
+     * ausentes, compartidas u obsoletas se resuelven con la BD y el resultado se indexa.
+     */
+    private volatile LongIntHashMap indiceChips;
+
+    /**
+     * Se incrementa en cada escritura que puede invalidar el índice de microchips: un
+     * resultado leído de la BD antes de la escritura no se indexa. Protegido por lockIndiceChips.
+     */
+    private long generacionChips;
+    private final Object lockIndiceChips = new Object();
+
+    /** Búsquedas por codigo_chip respondidas por el índice sin ir a la BD. */
+    private final AtomicLong aciertosIndiceChips = new AtomicLong();
+
     /**
      * Constructor con inyección de dependencias.
      *
@@ -36,7 +163,7 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
      * @param microchipServiceImpl Servicio de microchips para operaciones coordinadas
      * @throws IllegalArgumentException si alguna dependencia es null
      */
-    public MascotaServiceImpl(MascotaDAO mascotaDAO, MicrochipServiceImpl microchipServiceImpl) {
+    public MascotaServiceImpl(GenericMascotaDAO mascotaDAO, MicrochipServiceImpl microchipServiceImpl) {
         if (mascotaDAO == null) {
             throw new IllegalArgumentException("MascotaDAO no puede ser null");
         }
@@ -45,38 +172,87 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
         }
         this.mascotaDAO = mascotaDAO;
         this.microchipServiceImpl = microchipServiceImpl;
+        // Las mascotas cacheadas incluyen los datos de su microchip: cualquier cambio
+        // de un microchip invalida la caché por ID
+        this.microchipServiceImpl.addChangeListener(microchipId -> {
+            vaciarCachePorId();
+            // El código pudo cambiar a uno ya indexado para otra mascota: se vacía el índice
+            reiniciarIndiceChips();
+        });
     }
 
     /**
      * Inserta una nueva mascota en la base de datos.
+     * Si trae microchip, el microchip (nuevo o existente) y la mascota se guardan
+     * en una única transacción: o se registran ambos, o ninguno.
      *
      * @param mascota Mascota a insertar (id será ignorado y regenerado)
-     * @throws Exception Si la validación falla, el CodigoTag está duplicado, o hay error de BD
+     * @throws IllegalArgumentException Si la validación falla o el CodigoTag está duplicado
+     * @throws Exception Si hay error de BD
      */
     @Override
     public void insertar(Mascota mascota) throws Exception {
         validateMascota(mascota);
-        validateCodigoTagUnique(mascota.getCodigoTag(), null);
-
-        // Coordinación con MicrochipService (transaccional)
         if (mascota.getMicrochip() != null) {
-            if (mascota.getMicrochip().getId() == 0) {
-                // Microchip nuevo: insertar primero para obtener ID autogenerado
-                microchipServiceImpl.insertar(mascota.getMicrochip());
-            } else {
-                // Microchip existente: actualizar datos
-                microchipServiceImpl.actualizar(mascota.getMicrochip());
-            }
+            microchipServiceImpl.validateMicrochip(mascota.getMicrochip());
         }
 
-        mascotaDAO.insertar(mascota);
+        registrarTag(mascota.getCodigoTag());
+        try {
+            mascotaDAO.insertarConMicrochip(mascota);
+        } catch (Exception e) {
+            throw translateCodigoTagDuplicado(e, mascota.getCodigoTag());
+        }
+        registrarTag(mascota.getCodigoTag());
+        if (mascota.getMicrochip() != null && mascota.getMicrochip().getId() > 0) {
+            // Se actualizaron los datos de un microchip existente (puede estar cacheado en otras mascotas)
+            vaciarCachePorId();
+            reiniciarIndiceChips();
+        } else {
+            olvidarChip(mascota.getMicrochip());
+        }
+        invalidarPorMicrochip(mascota);
+    }
+
+    /**
+     * Inserta un lote de mascotas (con sus microchips nuevos) en una única transacción:
+     * o se registran todas, o ninguna. Pensado para cargas masivas (ImportadorCsv).
+     *
+     * @param mascotas Mascotas a insertar (sus id serán ignorados y regenerados)
+     * @throws IllegalArgumentException Si alguna mascota o microchip no pasa la validación
+     * @throws Dao.BatchInsertException Si alguna fila viola una restricción de la BD
+     *         (por ejemplo, un CodigoTag ya registrado); no se inserta ninguna
+     * @throws Exception Si hay error de BD
+     */
+    public void insertarLote(List<Mascota> mascotas) throws Exception {
+        if (mascotas == null) {
+            throw new IllegalArgumentException("La lista de mascotas no puede ser null");
+        }
+        for (Mascota mascota : mascotas) {
+            validateMascota(mascota);
+            if (mascota.getMicrochip() != null) {
+                microchipServiceImpl.validateMicrochip(mascota.getMicrochip());
+            }
+        }
+        if (!mascotas.isEmpty()) {
+            for (Mascota mascota : mascotas) {
+                registrarTag(mascota.getCodigoTag());
+            }
+            mascotaDAO.insertarBatchConMicrochip(mascotas);
+            for (Mascota mascota : mascotas) {
+                registrarTag(mascota.getCodigoTag());
+                olvidarChip(mascota.getMicrochip());
+                invalidarPorMicrochip(mascota);
+            }
+        }
     }
 
     /**
      * Actualiza una mascota existente en la base de datos.
      *
      * @param mascota Mascota con los datos actualizados
-     * @throws Exception Si la validación falla, el CodigoTag está duplicado, o la mascota no existe
+     * @throws IllegalArgumentException Si la validación falla o el CodigoTag está duplicado
+     * @throws Exception Si la mascota no existe o hay error de BD
      */
     @Override
     public void actualizar(Mascota mascota) throws Exception {
@@ -84,8 +260,20 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
         if (mascota.getId() <= 0) {
             throw new IllegalArgumentException("El ID de la mascota debe ser mayor a 0 para actualizar");
         }
-        validateCodigoTagUnique(mascota.getCodigoTag(), mascota.getId());
-        mascotaDAO.actualizar(mascota);
+        // El CodigoTag anterior queda en el filtro (puede haber cambiado): cuenta como obsoleto
+        registrarTag(mascota.getCodigoTag());
+        tagsObsoletos.incrementAndGet();
+        try {
+            mascotaDAO.actualizar(mascota);
+            registrarTag(mascota.getCodigoTag());
+        } catch (Exception e) {
+            throw translateCodigoTagDuplicado(e, mascota.getCodigoTag());
+        } finally {
+            invalidarMascota(mascota.getId());
+            // Si ahora comparte microchip con otra mascota, la entrada de ese código queda incompleta
+            olvidarChip(mascota.getMicrochip());
+            invalidarPorMicrochip(mascota);
+        }
     }
 
     /**
@@ -102,11 +290,15 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
             throw new IllegalArgumentException("El ID debe ser mayor a 0");
         }
         mascotaDAO.eliminar(id);
+        invalidarMascota(id);
+        tagsObsoletos.incrementAndGet();
+        revisarFiltroTags();
     }
 
     /**
      * Obtiene una mascota por su ID.
      * Incluye el microchip asociado mediante LEFT JOIN (MascotaDAO).
+     * Se sirve desde la caché si está presente; si no, se consulta la BD y se cachea.
      *
      * @param id ID de la mascota a buscar
      * @return Mascota encontrada (con su microchip si tiene), o null si no existe o está eliminada
@@ -117,7 +309,58 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
         if (id <= 0) {
             throw new IllegalArgumentException("El ID debe ser mayor a 0");
         }
-        return mascotaDAO.getById(id);
+        Mascota cacheada = cachePorId.get(id);
+        if (cacheada != null) {
+            return copiar(cacheada);
+        }
+        long generacion = generacionPorId();
+        Mascota mascota = mascotaDAO.getById(id);
+        if (mascota != null) {
+            cachear(mascota, generacion);
+        }
+        return mascota;
+    }
+
+    /**
+     * Obtiene varias mascotas por ID.
+     * Las que están en caché se sirven desde ahí; el resto se carga en pocas consultas
+     * (IN por tramos en MascotaDAO) y se cachea.
+     *
+     * @param ids IDs a buscar (los repetidos se ignoran)
+     * @return Mapa ID → mascota en el orden de ids; los IDs inexistentes o eliminados no aparecen
+     * @throws IllegalArgumentException Si ids es null o algún ID es <= 0
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public Map<Integer, Mascota> getByIds(Collection<Integer> ids) throws Exception {
+        MicrochipServiceImpl.validateIds(ids);
+
+        Map<Integer, Mascota> encontradas = new HashMap<>();
+        List<Integer> faltantes = new ArrayList<>();
+        for (Integer id : ids) {
+            Mascota cacheada = cachePorId.get(id);
+            if (cacheada != null) {
+                encontradas.put(id, copiar(cacheada));
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            long generacion = generacionPorId();
+            for (Mascota mascota : mascotaDAO.getByIds(faltantes).values()) {
+                cachear(mascota, generacion);
+                encontradas.put(mascota.getId(), mascota);
+            }
+        }
+
+        Map<Integer, Mascota> resultado = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            Mascota mascota = encontradas.get(id);
+            if (mascota != null) {
+                resultado.putIfAbsent(id, mascota);
+            }
+        }
+        return resultado;
     }
 
     /**
@@ -132,6 +375,55 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
         return mascotaDAO.getAll();
     }
 
+    /**
+     * Recorre las mascotas activas en memoria constante (cursor del servidor).
+     * El Stream DEBE cerrarse (try-with-resources) para liberar la conexión.
+     *
+     * @return Stream perezoso de mascotas activas
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public Stream<Mascota> streamAll() throws Exception {
+        return mascotaDAO.streamAll();
+    }
+
+    /**
+     * Recorre todas las mascotas activas como filas de valores (sin crear entidades),
+     * en memoria constante. Pensado para exportaciones completas (ExportadorRegistro).
+     *
+     * @param visitante Receptor de las filas
+     * @return Cantidad de filas recorridas
+     * @throws IllegalArgumentException Si visitante es null
+     * @throws Exception Si hay error de BD o el visitante falla
+     */
+    @Override
+    public long recorrerFilas(VisitanteFilas visitante) throws Exception {
+        if (visitante == null) {
+            throw new IllegalArgumentException("El visitante no puede ser null");
+        }
+        return mascotaDAO.recorrerFilas(visitante);
+    }
+
+    /**
+     * Obtiene una página de mascotas activas (paginación por keyset).
+     *
+     * @param afterId Id del último elemento de la página anterior (0 para la primera página)
+     * @param limit Tamaño de página (mayor a 0)
+     * @return Página de mascotas ordenadas por id (vacía si no hay más)
+     * @throws IllegalArgumentException Si afterId es negativo o limit <= 0
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public List<Mascota> getPage(int afterId, int limit) throws Exception {
+        if (afterId < 0) {
+            throw new IllegalArgumentException("El ID de inicio no puede ser negativo");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return mascotaDAO.getPage(afterId, limit);
+    }
+
     /**
      * Expone el servicio de microchips para que MenuHandler pueda usarlo.
      *
@@ -142,7 +434,7 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
     }
 
     /**
-     * Busca mascotas por nombre o especie (búsqueda flexible con LIKE).
+     * Busca mascotas por nombre o especie (búsqueda flexible, usa el índice FULLTEXT ngram si existe).
      *
      * @param filtro Texto a buscar (no puede estar vacío)
      * @return Lista de mascotas que coinciden con el filtro (puede estar vacía)
@@ -158,6 +450,8 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
 
     /**
      * Busca una mascota por CodigoTag exacto.
+     * Si el filtro de CodigoTag indica que no existe, devuelve null sin consultar la BD;
+     * si no, usa la caché CodigoTag → ID y la caché por ID, y solo consulta la BD ante un fallo.
      *
      * @param codigoTag CodigoTag exacto a buscar (no puede estar vacío)
      * @return Mascota con ese CodigoTag, o null si no existe o está eliminada
@@ -168,19 +462,144 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
         if (codigoTag == null || codigoTag.trim().isEmpty()) {
             throw new IllegalArgumentException("El CodigoTag no puede estar vacío");
         }
-        return mascotaDAO.buscarPorCodigoTag(codigoTag);
+        String tag = codigoTag.trim();
+
+        TagBloomFilter filtro = filtroTags;
+        if (filtro != null && !filtro.mightContain(tag)) {
+            descartesFiltro.incrementAndGet();
+            return null;
+        }
+
+        Integer id = cachePorTag.get(tag);
+        if (id != null) {
+            Mascota mascota = getById(id);
+            if (mascota != null && tag.equals(mascota.getCodigoTag())) {
+                return mascota;
+            }
+            cachePorTag.invalidate(tag);
+        }
+
+        long generacion = generacionPorId();
+        Mascota mascota = mascotaDAO.buscarPorCodigoTag(tag);
+        if (mascota != null) {
+            cachear(mascota, generacion);
+        }
+        return mascota;
     }
 
     /**
-     * Elimina un microchip de forma SEGURA actualizando primero la FK de la mascota.
+     * Busca las mascotas cuyo microchip tiene el codigo_chip exacto (de escáner a mascota).
+     *
+     * Con -Dcache.chipIndex=true, los códigos ISO de 15 dígitos se resuelven desde el índice
+     * en memoria y la caché por ID, sin consultar la BD; si no, con la consulta indexada de
+     * MascotaDAO (idx_microchips_codigo_chip + FK mascotas.microchip_id).
+     *
+     * @param codigoChip Código del microchip (no puede estar vacío)
+     * @return Mascotas activas con ese microchip, ordenadas por id (vacía si no hay;
+     *         varias si comparten el microchip, RN-040)
+     * @throws IllegalArgumentException Si el código está vacío
+     * @throws Exception Si hay error de BD
+     */
+    public List<Mascota> buscarPorCodigoChip(String codigoChip) throws Exception {
+        if (codigoChip == null || codigoChip.trim().isEmpty()) {
+            throw new IllegalArgumentException("El código del chip no puede estar vacío");
+        }
+        String codigo = codigoChip.trim();
+        long numerico = CodigoChip.parse(codigo);
+        LongIntHashMap indice = numerico != CodigoChip.NO_NUMERICO ? indiceChips : null;
+
+        if (indice != null) {
+            int id = indice.get(numerico);
+            if (id > 0) {
+                Mascota mascota = getById(id);
+                if (mascota != null && mascota.getMicrochip() != null
+                        && mascota.getMicrochip().getCodigoNumerico() == numerico) {
+                    aciertosIndiceChips.incrementAndGet();
+                    List<Mascota> resultado = new ArrayList<>(1);
+                    resultado.add(mascota);
+                    return resultado;
+                }
+            }
+        }
+
+        long generacion;
+        synchronized (lockIndiceChips) {
+            generacion = generacionChips;
+        }
+        long generacionCache = generacionPorId();
+        List<Mascota> mascotas = mascotaDAO.buscarPorCodigoChip(codigo);
+        for (Mascota mascota : mascotas) {
+            cachear(mascota, generacionCache);
+        }
+        if (indice != null && !mascotas.isEmpty()) {
+            synchronized (lockIndiceChips) {
+                if (generacion == generacionChips && indice == indiceChips) {
+                    indice.put(numerico, mascotas.size() == 1 ? mascotas.get(0).getId() : VARIAS_MASCOTAS);
+                }
+            }
+        }
+        return mascotas;
+    }
+
+    /**
+     * Obtiene las mascotas activas asociadas a un microchip: todas las que afecta
+     * actualizarlo o eliminarlo (RN-040). Pensado para verificar el impacto ANTES de
+     * MicrochipServiceImpl.actualizar/eliminar.
+     *
+     * Se sirve desde la caché inversa y la caché por ID; ante un fallo usa la consulta
+     * indexada de MascotaDAO (idx_mascotas_microchip_id) y cachea el resultado, salvo que
+     * una escritura haya invalidado la caché inversa durante la consulta.
+     *
+     * @param microchipId ID del microchip
+     * @return Mascotas que apuntan al microchip, ordenadas por id (vacía si no hay)
+     * @throws IllegalArgumentException Si microchipId <= 0
+     * @throws Exception Si hay error de BD
+     */
+    public List<Mascota> getMascotasByMicrochipId(int microchipId) throws Exception {
+        if (microchipId <= 0) {
+            throw new IllegalArgumentException("El ID debe ser mayor a 0");
+        }
+        List<Integer> ids = cachePorMicrochip.get(microchipId);
+        if (ids != null) {
+            Map<Integer, Mascota> cacheadas = getByIds(ids);
+            boolean vigentes = cacheadas.size() == ids.size() && cacheadas.values().stream()
+                    .allMatch(m -> m.getMicrochip() != null && m.getMicrochip().getId() == microchipId);
+            if (vigentes) {
+                return new ArrayList<>(cacheadas.values());
+            }
+            cachePorMicrochip.invalidate(microchipId);
+        }
+
+        long generacion;
+        synchronized (lockPorMicrochip) {
+            generacion = generacionPorMicrochip;
+        }
+        long generacionCache = generacionPorId();
+        List<Mascota> mascotas = mascotaDAO.getMascotasByMicrochipId(microchipId);
+        List<Integer> encontrados = new ArrayList<>(mascotas.size());
+        for (Mascota mascota : mascotas) {
+            cachear(mascota, generacionCache);
+            encontrados.add(mascota.getId());
+        }
+        synchronized (lockPorMicrochip) {
+            if (generacion == generacionPorMicrochip) {
+                cachePorMicrochip.put(microchipId, List.copyOf(encontrados));
+            }
+        }
+        return mascotas;
+    }
+
+    /**
+     * Elimina un microchip de forma SEGURA actualizando a la vez la FK de la mascota.
      * Este es el método RECOMENDADO para eliminar microchips (RN-029 solucionado).
      *
-     * Flujo transaccional SEGURO:
-     * 1. Obtiene la mascota por ID y valida que exista
-     * 2. Verifica que el microchip pertenezca a esa mascota
-     * 3. Desasocia el microchip de la mascota (mascota.microchip = null)
-     * 4. Actualiza la mascota en BD (microchip_id = NULL)
-     * 5. Elimina el microchip (ahora no hay FKs apuntando a él)
+     * Flujo transaccional SEGURO (MascotaDAO.eliminarMicrochipDeMascota):
+     * 1. Una única sentencia UPDATE multi-tabla, verificando que la mascota exista y
+     *    que el microchip le pertenezca
+     * 2. Desasocia el microchip (microchip_id = NULL) y lo elimina (eliminado = TRUE)
+     * 3. Un solo commit: no queda estado a medio aplicar aunque haya operaciones concurrentes
+     *
+     * Solo si la sentencia no afecta filas se consulta la mascota, para informar el motivo.
      *
      * @param mascotaId ID de la mascota dueña del microchip
      * @param microchipId ID del microchip a eliminar
@@ -192,28 +611,351 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
             throw new IllegalArgumentException("Los IDs deben ser mayores a 0");
         }
 
-        Mascota mascota = mascotaDAO.getById(mascotaId);
-        if (mascota == null) {
-            throw new IllegalArgumentException("Mascota no encontrada con ID: " + mascotaId);
+        boolean eliminado = mascotaDAO.eliminarMicrochipDeMascota(mascotaId, microchipId);
+        invalidarMascota(mascotaId);
+        invalidarMicrochip(microchipId);
+        if (!eliminado) {
+            if (mascotaDAO.getById(mascotaId) == null) {
+                throw new IllegalArgumentException("Mascota no encontrada con ID: " + mascotaId);
+            }
+            throw new IllegalArgumentException("El microchip no pertenece a esta mascota");
         }
+    }
 
-        if (mascota.getMicrochip() == null || mascota.getMicrochip().getId() != microchipId) {
-            throw new IllegalArgumentException("El microchip no pertenece a esta mascota");
+    /**
+     * Estadísticas de las cachés de mascotas (tamaño, aciertos, fallos, desalojos).
+     *
+     * @return Resumen legible de las cachés, el filtro de CodigoTag y el índice de microchips
+     */
+    public String getCacheStats() {
+        TagBloomFilter filtro = filtroTags;
+        LongIntHashMap indice = indiceChips;
+        return "porId=" + cachePorId + ", porCodigoTag=" + cachePorTag + ", porMicrochip=" + cachePorMicrochip
+                + ", filtroTags="
+                + (filtro == null ? "desactivado" : filtro + " (descartes=" + descartesFiltro.get() + ")")
+                + ", indiceChips=" + (indice == null ? "desactivado"
+                : indice.size() + " códigos (aciertos=" + aciertosIndiceChips.get() + ")");
+    }
+
+    /**
+     * Vacía las cachés y el índice de microchips (por ejemplo, tras modificar la BD por
+     * fuera de este servicio); el índice se vuelve a llenar con las búsquedas.
+     * El filtro de CodigoTag se desactiva hasta reconstruirlo en segundo plano, porque
+     * podría no conocer los CodigoTag agregados por fuera.
+     */
+    public void invalidarCache() {
+        synchronized (lockPorId) {
+            generacionPorId++;
+            cachePorId.clear();
+            cachePorTag.clear();
+        }
+        synchronized (lockPorMicrochip) {
+            generacionPorMicrochip++;
+            cachePorMicrochip.clear();
+        }
+        reiniciarIndiceChips();
+        if (filtroTags != null) {
+            filtroTags = null;
+            programarReconstruccionFiltro();
+        }
+    }
+
+    /**
+     * Construye (o reconstruye) el filtro de CodigoTag recorriendo las mascotas activas
+     * con un cursor del servidor (recorrerFilas, memoria constante). Se llama al iniciar la
+     * aplicación; mientras no se construye, buscarPorCodigoTag consulta siempre la BD.
+     *
+     * Los CodigoTag escritos durante el recorrido se agregan también al filtro nuevo, así
+     * que al reemplazar al anterior no le falta ninguno. No hace nada con -Dcache.tagFilter=false.
+     *
+     * ⚠️ Si otra aplicación escribe en la misma BD, el filtro no conoce sus CodigoTag:
+     * desactivarlo (-Dcache.tagFilter=false) o llamar a invalidarCache() tras esos cambios.
+     *
+     * @throws Exception Si hay error de BD (el filtro anterior, si había, se conserva)
+     */
+    public synchronized void construirFiltroTags() throws Exception {
+        if (!TAG_FILTER_ENABLED) {
+            return;
         }
+        TagBloomFilter anterior = filtroTags;
+        long capacidad = Math.max(TAG_FILTER_EXPECTED, anterior != null ? 2 * anterior.getElementos() : 0);
+        TagBloomFilter nuevo;
+        do {
+            nuevo = new TagBloomFilter(capacidad, TAG_FILTER_FPP);
+            cargarFiltro(nuevo);
+            // Si la tabla superó la capacidad, se repite con el doble de filas para respetar el fpp
+            capacidad = 2 * nuevo.getElementos();
+        } while (nuevo.getElementos() > nuevo.getCapacidad());
 
-        // Secuencia transaccional: actualizar FK → eliminar microchip
-        mascota.setMicrochip(null);
-        mascotaDAO.actualizar(mascota);
-        microchipServiceImpl.eliminar(microchipId);
+        tagsObsoletos.set(0);
+        // Orden inverso al de registrarTag: primero se publica el filtro nuevo
+        filtroTags = nuevo;
+        filtroEnConstruccion = null;
+    }
+
+    /**
+     * Recorre los CodigoTag activos y los agrega al filtro, que queda publicado como
+     * filtroEnConstruccion para recibir también las escrituras concurrentes.
+     */
+    private void cargarFiltro(TagBloomFilter filtro) throws Exception {
+        filtroEnConstruccion = filtro;
+        try {
+            mascotaDAO.recorrerFilas(new VisitanteFilas() {
+                private int columnaTag;
+
+                @Override
+                public void inicio(String[] columnas) {
+                    columnaTag = List.of(columnas).indexOf("codigo_tag");
+                }
+
+                @Override
+                public void fila(Object[] valores) {
+                    filtro.add((String) valores[columnaTag]);
+                }
+            });
+        } catch (Exception e) {
+            filtroEnConstruccion = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Agrega un CodigoTag al filtro vigente y al que se está construyendo (si hay).
+     * Lee filtroEnConstruccion ANTES que filtroTags: construirFiltroTags publica el filtro
+     * nuevo antes de limpiar filtroEnConstruccion, así que el tag llega al filtro nuevo
+     * por alguno de los dos caminos.
+     */
+    private void registrarTag(String codigoTag) {
+        TagBloomFilter enConstruccion = filtroEnConstruccion;
+        TagBloomFilter filtro = filtroTags;
+        if (enConstruccion != null) {
+            enConstruccion.add(codigoTag);
+        }
+        if (filtro != null) {
+            filtro.add(codigoTag);
+            revisarFiltroTags();
+        }
+    }
+
+    /**
+     * Programa una reconstrucción si el filtro superó su capacidad o acumuló demasiados
+     * bits obsoletos (más de la mitad de su capacidad): ambos suben los falsos positivos.
+     */
+    private void revisarFiltroTags() {
+        TagBloomFilter filtro = filtroTags;
+        if (filtro != null && (filtro.getElementos() > filtro.getCapacidad()
+                || tagsObsoletos.get() > filtro.getCapacidad() / 2)) {
+            programarReconstruccionFiltro();
+        }
+    }
+
+    /**
+     * Reconstruye el filtro en un hilo daemon (como mucho una reconstrucción a la vez).
+     * Mientras tanto se sigue usando el filtro vigente, que nunca da falsos negativos.
+     */
+    private void programarReconstruccionFiltro() {
+        if (!reconstruyendoFiltro.compareAndSet(false, true)) {
+            return;
+        }
+        Thread hilo = new Thread(() -> {
+            try {
+                construirFiltroTags();
+            } catch (Exception e) {
+                System.err.println("No se pudo reconstruir el filtro de CodigoTag: " + e.getMessage());
+            } finally {
+                reconstruyendoFiltro.set(false);
+            }
+        }, "tag-filter-rebuild");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Construye el índice codigo_chip → mascota con dos recorridos en memoria constante
+     * (recorrerFilas): primero los microchips activos y luego las mascotas, indexando las
+     * que apuntan a uno de ellos con código numérico. Se llama al iniciar la aplicación;
+     * sin construirlo, el índice se llena con las búsquedas. No hace nada sin -Dcache.chipIndex=true.
+     *
+     * Si hay escrituras durante el recorrido se reintenta; si siguen, el índice queda vacío
+     * (se llena con las búsquedas) en lugar de publicar entradas que podrían estar incompletas.
+     *
+     * @throws Exception Si hay error de BD (el índice anterior, si había, se conserva)
+     */
+    public synchronized void construirIndiceChips() throws Exception {
+        if (!CHIP_INDEX_ENABLED) {
+            return;
+        }
+        for (int intento = 0; intento < CHIP_INDEX_INTENTOS; intento++) {
+            long generacion;
+            synchronized (lockIndiceChips) {
+                generacion = generacionChips;
+            }
+            LongIntHashMap nuevo = cargarIndiceChips();
+            synchronized (lockIndiceChips) {
+                if (generacion == generacionChips) {
+                    indiceChips = nuevo;
+                    return;
+                }
+            }
+        }
+        reiniciarIndiceChips();
+    }
+
+    /**
+     * Recorre microchips activos y mascotas y devuelve el índice codigo_chip → mascota.
+     */
+    private LongIntHashMap cargarIndiceChips() throws Exception {
+        // id de microchip activo → 0 (solo se usa como conjunto, sin boxing)
+        LongIntHashMap microchipsActivos = new LongIntHashMap(CHIP_INDEX_EXPECTED);
+        microchipServiceImpl.recorrerFilas(new VisitanteFilas() {
+            private int columnaId;
+
+            @Override
+            public void inicio(String[] columnas) {
+                columnaId = List.of(columnas).indexOf("id");
+            }
+
+            @Override
+            public void fila(Object[] valores) {
+                microchipsActivos.put(((Number) valores[columnaId]).longValue(), 0);
+            }
+        });
+
+        LongIntHashMap indice = new LongIntHashMap(CHIP_INDEX_EXPECTED);
+        mascotaDAO.recorrerFilas(new VisitanteFilas() {
+            private int columnaId;
+            private int columnaMicrochip;
+            private int columnaCodigo;
+
+            @Override
+            public void inicio(String[] columnas) {
+                List<String> nombres = List.of(columnas);
+                columnaId = nombres.indexOf("id");
+                columnaMicrochip = nombres.indexOf("microchip_id");
+                columnaCodigo = nombres.indexOf("codigo_chip");
+            }
+
+            @Override
+            public void fila(Object[] valores) {
+                Object microchipId = valores[columnaMicrochip];
+                long codigo = CodigoChip.parse((String) valores[columnaCodigo]);
+                if (microchipId == null || codigo == CodigoChip.NO_NUMERICO
+                        || microchipsActivos.get(((Number) microchipId).longValue()) == LongIntHashMap.AUSENTE) {
+                    return;
+                }
+                int id = ((Number) valores[columnaId]).intValue();
+                indice.put(codigo, indice.get(codigo) == LongIntHashMap.AUSENTE ? id : VARIAS_MASCOTAS);
+            }
+        });
+        return indice;
+    }
+
+    /**
+     * Quita del índice el código del microchip (tras escribir una mascota que lo usa) y
+     * descarta los resultados de la BD leídos antes de la escritura. Si el microchip se
+     * asoció solo por id (sin código), no se sabe qué entrada quitar: se reinicia el índice.
+     */
+    private void olvidarChip(Microchip microchip) {
+        if (!CHIP_INDEX_ENABLED) {
+            return;
+        }
+        if (microchip != null && microchip.getCodigoNumerico() == CodigoChip.NO_NUMERICO
+                && microchip.getCodigoChip() == null) {
+            reiniciarIndiceChips();
+            return;
+        }
+        synchronized (lockIndiceChips) {
+            // También sin índice publicado: invalida una construcción en curso
+            generacionChips++;
+            LongIntHashMap indice = indiceChips;
+            if (indice != null && microchip != null && microchip.getCodigoNumerico() != CodigoChip.NO_NUMERICO) {
+                indice.remove(microchip.getCodigoNumerico());
+            }
+        }
+    }
+
+    private long generacionPorId() {
+        synchronized (lockPorId) {
+            return generacionPorId;
+        }
+    }
+
+    /**
+     * Cachea una mascota leída de la BD (por ID y por CodigoTag), salvo que alguna
+     * escritura haya invalidado cachePorId desde que se leyó la generación.
+     */
+    private void cachear(Mascota mascota, long generacion) {
+        Mascota copia = copiar(mascota);
+        synchronized (lockPorId) {
+            if (generacion == generacionPorId) {
+                cachePorId.put(copia.getId(), copia);
+                cachePorTag.put(copia.getCodigoTag(), copia.getId());
+            }
+        }
+    }
+
+    /**
+     * Quita la mascota de la caché por ID y descarta las lecturas de la BD en curso.
+     */
+    private void invalidarMascota(int id) {
+        synchronized (lockPorId) {
+            generacionPorId++;
+            cachePorId.invalidate(id);
+        }
+    }
+
+    /**
+     * Vacía la caché por ID (tras cambiar un microchip que pueden tener varias mascotas
+     * cacheadas) y descarta las lecturas de la BD en curso.
+     */
+    private void vaciarCachePorId() {
+        synchronized (lockPorId) {
+            generacionPorId++;
+            cachePorId.clear();
+        }
+    }
+
+    /**
+     * Invalida la caché inversa del microchip de la mascota (tras asociarla a él).
+     */
+    private void invalidarPorMicrochip(Mascota mascota) {
+        if (mascota.getMicrochip() != null && mascota.getMicrochip().getId() > 0) {
+            invalidarMicrochip(mascota.getMicrochip().getId());
+        }
+    }
+
+    /**
+     * Invalida la entrada del microchip en la caché inversa y descarta las lecturas de la
+     * BD en curso (ver getMascotasByMicrochipId).
+     */
+    private void invalidarMicrochip(int microchipId) {
+        synchronized (lockPorMicrochip) {
+            generacionPorMicrochip++;
+            cachePorMicrochip.invalidate(microchipId);
+        }
+    }
+
+    /**
+     * Reemplaza el índice por uno vacío (si está habilitado); se vuelve a llenar con las búsquedas.
+     */
+    private void reiniciarIndiceChips() {
+        if (!CHIP_INDEX_ENABLED) {
+            return;
+        }
+        synchronized (lockIndiceChips) {
+            generacionChips++;
+            indiceChips = new LongIntHashMap(CHIP_INDEX_EXPECTED);
+        }
     }
 
     /**
      * Valida que una mascota tenga datos correctos.
+     * Package-private para que ImportadorCsv valide cada fila antes de agruparla en lotes.
      *
      * @param mascota Mascota a validar
      * @throws IllegalArgumentException Si alguna validación falla
      */
-    private void validateMascota(Mascota mascota) {
+    void validateMascota(Mascota mascota) {
         if (mascota == null) {
             throw new IllegalArgumentException("La mascota no puede ser null");
         }
@@ -229,20 +971,45 @@ public class MascotaServiceImpl implements GenericService<Mascota> {
     }
 
     /**
-     * Valida que un CodigoTag sea único en el sistema.
+     * Traduce la violación del UNIQUE de codigo_tag a un error de negocio.
      * Implementa la regla de negocio RN-001: "El CodigoTag debe ser único".
      *
-     * @param codigoTag CodigoTag a validar
-     * @param mascotaId ID de la mascota (null para INSERT, != null para UPDATE)
-     * @throws IllegalArgumentException Si el CodigoTag ya existe y pertenece a otra mascota
-     * @throws Exception Si hay error de BD al buscar
+     * La unicidad la garantiza la BD (constraint UNIQUE): en lugar de consultar antes
+     * de escribir (2 round trips y una carrera check-then-act), se intenta la escritura
+     * y se reconoce el error de clave duplicada (SQLState 23000, código MySQL 1062).
+     *
+     * @param e Excepción lanzada por el DAO
+     * @param codigoTag CodigoTag que se intentó guardar
+     * @return IllegalArgumentException si fue un CodigoTag duplicado, o la excepción original
      */
-    private void validateCodigoTagUnique(String codigoTag, Integer mascotaId) throws Exception {
-        Mascota existente = mascotaDAO.buscarPorCodigoTag(codigoTag);
-        if (existente != null) {
-            if (mascotaId == null || existente.getId() != mascotaId) {
-                throw new IllegalArgumentException("Ya existe una mascota con el CodigoTag: " + codigoTag);
+    private Exception translateCodigoTagDuplicado(Exception e, String codigoTag) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sqlException
+                    && SQLSTATE_INTEGRITY_VIOLATION.equals(sqlException.getSQLState())
+                    && sqlException.getErrorCode() == MYSQL_ERROR_DUPLICATE_ENTRY) {
+                return new IllegalArgumentException("Ya existe una mascota con el CodigoTag: " + codigoTag, e);
             }
         }
+        return e;
+    }
+
+    /**
+     * Crea una copia independiente de una mascota (y de su microchip).
+     * La caché guarda y devuelve copias para que los cambios del caller
+     * (ej: MenuHandler editando campos antes de actualizar) no la contaminen.
+     *
+     * @param original Mascota a copiar
+     * @return Copia con los mismos datos
+     */
+    private static Mascota copiar(Mascota original) {
+        Mascota copia = new Mascota(original.getId(), original.getNombre(), original.getEspecie(), original.getCodigoTag());
+        copia.setEliminado(original.isEliminado());
+        Microchip microchip = original.getMicrochip();
+        if (microchip != null) {
+            Microchip copiaMicrochip = new Microchip(microchip.getId(), microchip.getCodigoChip(), microchip.getMarca());
+            copiaMicrochip.setEliminado(microchip.isEliminado());
+            copia.setMicrochip(copiaMicrochip);
+        }
+        return copia;
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,15 @@
 package Service;
 
-import Dao.GenericDAO;
+import Dao.GenericMicrochipDAO;
+import Dao.VisitanteFilas;
 import Models.Microchip;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de negocio para la entidad Microchip.
@@ -21,9 +27,15 @@ public class MicrochipServiceImpl implements GenericService<Microchip> {
     /**
      * DAO para acceso a datos de microchips.
      * Inyectado en el constructor (Dependency Injection).
-     * Usa GenericDAO para permitir testing con mocks.
+     * Usa GenericMicrochipDAO para permitir testing con mocks.
      */
-    private final GenericDAO<Microchip> microchipDAO;
+    private final GenericMicrochipDAO microchipDAO;
+
+    /**
+     * Listeners notificados con el ID del microchip tras actualizarlo o eliminarlo.
+     * Permiten a otros servicios (ej: la caché de MascotaServiceImpl) invalidar datos derivados.
+     */
+    private final List<IntConsumer> changeListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructor con inyección de dependencias.
@@ -32,7 +44,7 @@ public class MicrochipServiceImpl implements GenericService<Microchip> {
      * @param microchipDAO DAO de microchips (normalmente MicrochipDAO)
      * @throws IllegalArgumentException si microchipDAO es null
      */
-    public MicrochipServiceImpl(GenericDAO<Microchip> microchipDAO) {
+    public MicrochipServiceImpl(GenericMicrochipDAO microchipDAO) {
         if (microchipDAO == null) {
             throw new IllegalArgumentException("MicrochipDAO no puede ser null");
         }
@@ -64,6 +76,7 @@ public class MicrochipServiceImpl implements GenericService<Microchip> {
             throw new IllegalArgumentException("El ID del microchip debe ser mayor a 0 para actualizar");
         }
         microchipDAO.actualizar(microchip);
+        notifyChange(microchip.getId());
     }
 
     /**
@@ -83,6 +96,7 @@ public class MicrochipServiceImpl implements GenericService<Microchip> {
             throw new IllegalArgumentException("El ID debe ser mayor a 0");
         }
         microchipDAO.eliminar(id);
+        notifyChange(id);
     }
 
     /**
@@ -100,6 +114,36 @@ public class MicrochipServiceImpl implements GenericService<Microchip> {
         return microchipDAO.getById(id);
     }
 
+    /**
+     * Obtiene varios microchips por ID en pocas consultas (IN por tramos en MicrochipDAO).
+     *
+     * @param ids IDs a buscar (los repetidos se ignoran)
+     * @return Mapa ID → microchip en el orden de ids; los IDs inexistentes o eliminados no aparecen
+     * @throws IllegalArgumentException Si ids es null o algún ID es <= 0
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public Map<Integer, Microchip> getByIds(Collection<Integer> ids) throws Exception {
+        validateIds(ids);
+        return microchipDAO.getByIds(ids);
+    }
+
+    /**
+     * Busca un microchip por codigo_chip exacto (lo que lee un escáner).
+     * Usa el índice idx_microchips_codigo_chip (ver README).
+     *
+     * @param codigoChip Código a buscar (no puede estar vacío)
+     * @return Microchip activo con ese código (el de menor id si hay varios), o null
+     * @throws IllegalArgumentException Si el código está vacío
+     * @throws Exception Si hay error de BD
+     */
+    public Microchip buscarPorCodigoChip(String codigoChip) throws Exception {
+        if (codigoChip == null || codigoChip.trim().isEmpty()) {
+            throw new IllegalArgumentException("El código del chip no puede estar vacío");
+        }
+        return microchipDAO.buscarPorCodigoChip(codigoChip.trim());
+    }
+
     /**
      * Obtiene todos los microchips activos (eliminado=FALSE).
      *
@@ -111,8 +155,82 @@ public class MicrochipServiceImpl implements GenericService<Microchip> {
         return microchipDAO.getAll();
     }
 
+    /**
+     * Recorre los microchips activos en memoria constante (cursor del servidor).
+     * El Stream DEBE cerrarse (try-with-resources) para liberar la conexión.
+     *
+     * @return Stream perezoso de microchips activos
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public Stream<Microchip> streamAll() throws Exception {
+        return microchipDAO.streamAll();
+    }
+
+    /**
+     * Recorre todos los microchips activos como filas de valores (sin crear entidades),
+     * en memoria constante. Pensado para exportaciones completas (ExportadorRegistro).
+     *
+     * @param visitante Receptor de las filas
+     * @return Cantidad de filas recorridas
+     * @throws IllegalArgumentException Si visitante es null
+     * @throws Exception Si hay error de BD o el visitante falla
+     */
+    @Override
+    public long recorrerFilas(VisitanteFilas visitante) throws Exception {
+        if (visitante == null) {
+            throw new IllegalArgumentException("El visitante no puede ser null");
+        }
+        return microchipDAO.recorrerFilas(visitante);
+    }
+
+    /**
+     * Obtiene una página de microchips activos (paginación por keyset).
+     *
+     * @param afterId Id del último elemento de la página anterior (0 para la primera página)
+     * @param limit Tamaño de página (mayor a 0)
+     * @return Página de microchips ordenados por id (vacía si no hay más)
+     * @throws IllegalArgumentException Si afterId es negativo o limit <= 0
+     * @throws Exception Si hay error de BD
+     */
+    @Override
+    public List<Microchip> getPage(int afterId, int limit) throws Exception {
+        if (afterId < 0) {
+            throw new IllegalArgumentException("El ID de inicio no puede ser negativo");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor a 0");
+        }
+        return microchipDAO.getPage(afterId, limit);
+    }
+
+    /**
+     * Registra un listener que recibe el ID de cada microchip actualizado o eliminado.
+     *
+     * @param listener Callback a invocar tras cada cambio
+     */
+    public void addChangeListener(IntConsumer listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("El listener no puede ser null");
+        }
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Notifica a los listeners que el microchip cambió.
+     *
+     * @param microchipId ID del microchip modificado
+     */
+    private void notifyChange(int microchipId) {
+        for (IntConsumer listener : changeListeners) {
+            listener.accept(microchipId);
+        }
+    }
+
     /**
      * Valida que un microchip tenga datos correctos.
+     * Package-private para que MascotaServiceImpl valide el microchip antes de
+     * registrarlo en la misma transacción que la mascota.
      *
      * Reglas de negocio aplicadas:
      * - RN-023: codigo_chip y marca son obligatorios
@@ -120,7 +238,7 @@ public class MicrochipServiceImpl implements GenericService<Microchip> {
      * @param microchip Microchip a validar
      * @throws IllegalArgumentException Si alguna validación falla
      */
-    private void validateMicrochip(Microchip microchip) {
+    void validateMicrochip(Microchip microchip) {
         if (microchip == null) {
             throw new IllegalArgumentException("El microchip no puede ser null");
         }
@@ -131,4 +249,22 @@ public class MicrochipServiceImpl implements GenericService<Microchip> {
             throw new IllegalArgumentException("La marca no puede estar vacía");
         }
     }
+
+    /**
+     * Valida los IDs de una carga múltiple (getByIds).
+     * Package-private y estático para que MascotaServiceImpl aplique las mismas reglas.
+     *
+     * @param ids IDs a validar
+     * @throws IllegalArgumentException Si ids es null o algún ID es null o <= 0
+     */
+    static void validateIds(Collection<Integer> ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("La lista de IDs no puede ser null");
+        }
+        for (Integer id : ids) {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("Todos los IDs deben ser mayores a 0");
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package Service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro de Bloom sobre CodigoTag, usado por MascotaServiceImpl para responder sin
+ * consultar la BD que un CodigoTag NO existe.
+ *
+ * - mightContain == false: el CodigoTag seguro no fue agregado (sin falsos negativos)
+ * - mightContain == true: puede existir (falsos positivos con probabilidad ~fpp)
+ *
+ * No admite borrados: las bajas y los cambios de CodigoTag dejan bits obsoletos que
+ * solo suben la tasa de falsos positivos; MascotaServiceImpl reconstruye el filtro
+ * cuando se acumulan demasiados. Los CodigoTag se normalizan (sin espacios en los extremos,
+ * sin acentos y en minúsculas) para no dar falsos negativos donde la collation _ai_ci de
+ * MySQL sí encuentra coincidencia (no distingue mayúsculas, acentos ni espacios finales).
+ * Los acentos se quitan con la descomposición NFKD de Unicode; las demás equivalencias de
+ * la collation (ej: "ß" = "ss", "æ" = "ae") NO se cubren: si los CodigoTag pueden tenerlas,
+ * desactivar el filtro (-Dcache.tagFilter=false).
+ *
+ * Seguro para varios hilos sin locks: los bits viven en un AtomicLongArray y add()
+ * solo enciende bits (nunca los apaga).
+ */
+final class TagBloomFilter {
+    /** Marcas diacríticas que deja la descomposición NFKD (los acentos). */
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int funcionesHash;
+    private final long capacidad;
+    private final AtomicLong elementos = new AtomicLong();
+
+    /**
+     * @param capacidad Cantidad de CodigoTag esperada (mayor a 0)
+     * @param fpp Probabilidad de falso positivo buscada con esa cantidad (entre 0 y 1)
+     */
+    TagBloomFilter(long capacidad, double fpp) {
+        if (capacidad <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Capacidad o probabilidad de falso positivo inválida");
+        }
+        // Tamaño óptimo: m = -n ln(p) / (ln 2)^2 bits y k = (m / n) ln 2 funciones de hash
+        long m = (long) Math.ceil(-capacidad * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int palabras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(palabras);
+        this.cantidadBits = (long) palabras * 64;
+        this.funcionesHash = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * Math.log(2)));
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Agrega un CodigoTag (ignora null y vacíos). Agregar otra vez el mismo no cambia
+     * el filtro ni la cantidad de elementos.
+     */
+    void add(String codigoTag) {
+        if (codigoTag == null || codigoTag.trim().isEmpty()) {
+            return;
+        }
+        long h1 = hash(codigoTag);
+        long h2 = Long.rotateLeft(h1, 32) | 1;
+        boolean nuevo = false;
+        for (int i = 1; i <= funcionesHash; i++) {
+            long bit = posicion(h1, h2, i);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0) {
+                if (bits.compareAndSet(palabra, actual, actual | mascara)) {
+                    nuevo = true;
+                    break;
+                }
+                actual = bits.get(palabra);
+            }
+        }
+        if (nuevo) {
+            elementos.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return false si el CodigoTag seguro no fue agregado; true si puede haberlo sido
+     */
+    boolean mightContain(String codigoTag) {
+        long h1 = hash(codigoTag);
+        long h2 = Long.rotateLeft(h1, 32) | 1;
+        for (int i = 1; i <= funcionesHash; i++) {
+            long bit = posicion(h1, h2, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Cantidad de add() que encendieron algún bit (no cuenta los repetidos). */
+    long getElementos() {
+        return elementos.get();
+    }
+
+    long getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Doble hashing (Kirsch-Mitzenmacher): la función i es h1 + i * h2, sin recalcular el hash.
+     */
+    private long posicion(long h1, long h2, int i) {
+        return ((h1 + i * h2) & Long.MAX_VALUE) % cantidadBits;
+    }
+
+    /**
+     * Hash de 64 bits del CodigoTag normalizado (FNV-1a más la mezcla final de MurmurHash3).
+     */
+    private static long hash(String codigoTag) {
+        String normalizado = normalizar(codigoTag);
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalizado.length(); i++) {
+            h ^= normalizado.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Sin espacios en los extremos, sin acentos y en minúsculas. Los CodigoTag ASCII
+     * (el caso habitual) no pasan por Normalizer.
+     */
+    private static String normalizar(String codigoTag) {
+        String normalizado = codigoTag.trim();
+        for (int i = 0; i < normalizado.length(); i++) {
+            if (normalizado.charAt(i) >= 0x80) {
+                normalizado = MARCAS.matcher(Normalizer.normalize(normalizado, Normalizer.Form.NFKD)).replaceAll("");
+                break;
+            }
+        }
+        return normalizado.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return "TagBloomFilter{bits=" + cantidadBits + ", hashes=" + funcionesHash
+                + ", elementos=" + elementos.get() + ", capacidad=" + capacidad + "}";
+    }
+}
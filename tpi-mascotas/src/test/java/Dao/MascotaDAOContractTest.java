@@ -0,0 +1,130 @@
+package Dao;
+
+import Models.Mascota;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Contrato común de MascotaDAO e InMemoryMascotaDAO: los mismos casos contra ambos.
+ *
+ * Las validaciones de argumentos no llegan a la BD y corren siempre contra los dos. Los
+ * casos con datos corren contra MySQL solo con -Dtest.mysql=true (usa db.url, ej: la base
+ * de benchmarks); las filas que crean se dan de baja al terminar.
+ */
+class MascotaDAOContractTest {
+    private static final boolean MYSQL = Boolean.getBoolean("test.mysql");
+
+    /** Sufijo de los CodigoTag creados (UNIQUE también entre filas eliminadas). */
+    private final String sufijo = Long.toString(System.nanoTime(), 36);
+
+    @Test
+    void rechazaCodigoTagVacio() {
+        for (GenericMascotaDAO dao : todos()) {
+            assertThrows(IllegalArgumentException.class, () -> dao.buscarPorCodigoTag(null));
+            assertThrows(IllegalArgumentException.class, () -> dao.buscarPorCodigoTag(""));
+            assertThrows(IllegalArgumentException.class, () -> dao.buscarPorCodigoTag("   "));
+        }
+    }
+
+    @Test
+    void rechazaFiltroVacio() {
+        for (GenericMascotaDAO dao : todos()) {
+            assertThrows(IllegalArgumentException.class, () -> dao.buscarPorNombreEspecie(null));
+            assertThrows(IllegalArgumentException.class, () -> dao.buscarPorNombreEspecie(""));
+            assertThrows(IllegalArgumentException.class, () -> dao.buscarPorNombreEspecie("  "));
+        }
+    }
+
+    @Test
+    void rechazaCodigoChipVacio() {
+        for (GenericMascotaDAO dao : todos()) {
+            assertThrows(IllegalArgumentException.class, () -> dao.buscarPorCodigoChip(null));
+            assertThrows(IllegalArgumentException.class, () -> dao.buscarPorCodigoChip(" "));
+        }
+    }
+
+    @Test
+    void buscarPorCodigoTagIgnoraEspaciosMayusculasYAcentos() throws Exception {
+        for (GenericMascotaDAO dao : conDatos()) {
+            List<Mascota> creadas = crear(dao);
+            try {
+                int tomas = creadas.get(0).getId();
+                assertEquals(tomas, dao.buscarPorCodigoTag("  TÁG-1-" + sufijo + " ").getId());
+                assertEquals(tomas, dao.buscarPorCodigoTag("tag-1-" + sufijo).getId());
+                assertNull(dao.buscarPorCodigoTag("tag-9-" + sufijo));
+            } finally {
+                eliminar(dao, creadas);
+            }
+        }
+    }
+
+    @Test
+    void buscarPorNombreEspecieSigueLaSemanticaDeLike() throws Exception {
+        for (GenericMascotaDAO dao : conDatos()) {
+            List<Mascota> creadas = crear(dao);
+            try {
+                Set<Integer> tomas = Set.of(creadas.get(0).getId());
+                Set<Integer> rex = Set.of(creadas.get(1).getId());
+                Set<Integer> michi = Set.of(creadas.get(2).getId());
+
+                // Sin distinguir acentos ni mayúsculas
+                assertEquals(tomas, ids(dao.buscarPorNombreEspecie("TOMAS"), creadas));
+                // _ es un carácter cualquiera; % cualquier secuencia
+                assertEquals(tomas, ids(dao.buscarPorNombreEspecie("t_más"), creadas));
+                assertEquals(rex, ids(dao.buscarPorNombreEspecie("rex%100"), creadas));
+                // \ hace literal al comodín
+                assertEquals(michi, ids(dao.buscarPorNombreEspecie("50\\%"), creadas));
+                assertEquals(Set.of(), ids(dao.buscarPorNombreEspecie("5\\_"), creadas));
+            } finally {
+                eliminar(dao, creadas);
+            }
+        }
+    }
+
+    // ==================== Auxiliares ====================
+
+    /** DAO en memoria y MascotaDAO (sin conexión: solo para casos que no llegan a la BD). */
+    private static List<GenericMascotaDAO> todos() {
+        return List.of(new InMemoryMascotaDAO(new InMemoryStore()), new MascotaDAO(new MicrochipDAO()));
+    }
+
+    private static List<GenericMascotaDAO> conDatos() {
+        List<GenericMascotaDAO> daos = new ArrayList<>();
+        daos.add(new InMemoryMascotaDAO(new InMemoryStore()));
+        if (MYSQL) {
+            daos.add(new MascotaDAO(new MicrochipDAO()));
+        }
+        return daos;
+    }
+
+    private List<Mascota> crear(GenericMascotaDAO dao) throws Exception {
+        List<Mascota> creadas = List.of(
+                new Mascota(0, "Tomás", "Perro", "TAG-1-" + sufijo),
+                new Mascota(0, "Rex 100", "Perro", "TAG-2-" + sufijo),
+                new Mascota(0, "Michi 50%", "Gato", "TAG-3-" + sufijo));
+        for (Mascota mascota : creadas) {
+            dao.insertar(mascota);
+        }
+        return creadas;
+    }
+
+    private static void eliminar(GenericMascotaDAO dao, List<Mascota> creadas) throws Exception {
+        for (Mascota mascota : creadas) {
+            dao.eliminar(mascota.getId());
+        }
+    }
+
+    /** Ids del resultado limitados a las filas del caso (en MySQL puede haber otras). */
+    private static Set<Integer> ids(List<Mascota> resultado, List<Mascota> creadas) {
+        Set<Integer> propias = creadas.stream().map(Mascota::getId).collect(Collectors.toSet());
+        return resultado.stream().map(Mascota::getId).filter(propias::contains).collect(Collectors.toSet());
+    }
+}
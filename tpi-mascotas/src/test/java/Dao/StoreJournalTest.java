@@ -0,0 +1,129 @@
+package Dao;
+
+import Models.Mascota;
+import Models.Microchip;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Recuperación del write-ahead log y del snapshot de StoreJournal.
+ */
+class StoreJournalTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void cargarConservaLosFramesAnterioresAUnoCorrupto() throws IOException {
+        try (StoreJournal journal = new StoreJournal(directorio)) {
+            journal.cargar((chips, mascotas) -> { });
+            for (int id = 1; id <= 3; id++) {
+                journal.registrar(List.of(chip(id)), List.of());
+            }
+        }
+        corromperFrame(1);
+
+        Recuperado recuperado = new Recuperado();
+        try (StoreJournal journal = new StoreJournal(directorio)) {
+            journal.cargar(recuperado::agregar);
+            assertEquals(List.of(1), recuperado.idsMicrochip);
+
+            // El log quedó truncado tras el último frame válido: lo nuevo se agrega detrás
+            journal.registrar(List.of(chip(4)), List.of());
+        }
+
+        Recuperado otraVez = new Recuperado();
+        try (StoreJournal journal = new StoreJournal(directorio)) {
+            journal.cargar(otraVez::agregar);
+        }
+        assertEquals(List.of(1, 4), otraVez.idsMicrochip);
+    }
+
+    @Test
+    void cargarDescartaUnFrameFinalIncompleto() throws IOException {
+        try (StoreJournal journal = new StoreJournal(directorio)) {
+            journal.cargar((chips, mascotas) -> { });
+            journal.registrar(List.of(chip(1)), List.of());
+            journal.registrar(List.of(chip(2)), List.of(mascota(1, 2)));
+        }
+        Path wal = directorio.resolve("wal.log");
+        byte[] bytes = Files.readAllBytes(wal);
+        Files.write(wal, Arrays.copyOf(bytes, bytes.length - 3));
+
+        Recuperado recuperado = new Recuperado();
+        try (StoreJournal journal = new StoreJournal(directorio)) {
+            journal.cargar(recuperado::agregar);
+        }
+        assertEquals(List.of(1), recuperado.idsMicrochip);
+        assertEquals(List.of(), recuperado.idsMascota);
+    }
+
+    @Test
+    void cargarReproduceElLogSobreElSnapshot() throws IOException {
+        try (StoreJournal journal = new StoreJournal(directorio)) {
+            journal.cargar((chips, mascotas) -> { });
+            journal.registrar(List.of(chip(1)), List.of(mascota(1, 1)));
+            journal.compactar(List.of(chip(1)), List.of(mascota(1, 1)));
+            journal.registrar(List.of(chip(2)), List.of(mascota(2, 2)));
+        }
+
+        Recuperado recuperado = new Recuperado();
+        try (StoreJournal journal = new StoreJournal(directorio)) {
+            journal.cargar(recuperado::agregar);
+            assertEquals(1, journal.getEntradasPendientes());
+        }
+        assertEquals(List.of(1, 2), recuperado.idsMicrochip);
+        assertEquals(List.of(1, 2), recuperado.idsMascota);
+        assertEquals(List.of(1, 2), recuperado.microchipIdsDeMascotas);
+    }
+
+    // ==================== Auxiliares ====================
+
+    /** Invierte un byte del cuerpo del frame n (desde 0) de wal.log, sin cambiar su largo. */
+    private void corromperFrame(int n) throws IOException {
+        Path wal = directorio.resolve("wal.log");
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(wal));
+        int inicio = 0;
+        for (int i = 0; i < n; i++) {
+            inicio += 8 + log.getInt(inicio);
+        }
+        log.put(inicio + 8 + 1, (byte) ~log.get(inicio + 8 + 1));
+        Files.write(wal, log.array());
+    }
+
+    private static Microchip chip(int id) {
+        return new Microchip(id, String.format("%015d", id), "Marca " + id);
+    }
+
+    private static Mascota mascota(int id, int microchipId) {
+        Mascota mascota = new Mascota(id, "Mascota " + id, "Perro", "TAG-" + id);
+        Microchip fk = new Microchip();
+        fk.setId(microchipId);
+        mascota.setMicrochip(fk);
+        return mascota;
+    }
+
+    private static final class Recuperado {
+        final List<Integer> idsMicrochip = new ArrayList<>();
+        final List<Integer> idsMascota = new ArrayList<>();
+        final List<Integer> microchipIdsDeMascotas = new ArrayList<>();
+
+        void agregar(List<Microchip> chips, List<Mascota> mascotas) {
+            chips.forEach(chip -> idsMicrochip.add(chip.getId()));
+            mascotas.forEach(mascota -> {
+                idsMascota.add(mascota.getId());
+                microchipIdsDeMascotas.add(mascota.getMicrochip().getId());
+            });
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package Service;
+
+import Dao.InMemoryMascotaDAO;
+import Dao.InMemoryMicrochipDAO;
+import Dao.InMemoryStore;
+import Models.Mascota;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Cachés read-through de MascotaServiceImpl: una lectura de la BD que se cruza con una
+ * escritura no debe dejar cacheada la fila vieja.
+ */
+class MascotaServiceCacheTest {
+
+    /** Escritura que se ejecuta una vez, justo después de que el DAO leyó la fila (y antes del put). */
+    private Escritura escrituraIntercalada;
+
+    private final InMemoryStore store = new InMemoryStore();
+    private final MascotaServiceImpl servicio = new MascotaServiceImpl(new InMemoryMascotaDAO(store) {
+        @Override
+        public Mascota getById(int id) {
+            Mascota leida = super.getById(id);
+            intercalar();
+            return leida;
+        }
+
+        @Override
+        public Map<Integer, Mascota> getByIds(Collection<Integer> ids) {
+            Map<Integer, Mascota> leidas = super.getByIds(ids);
+            intercalar();
+            return leidas;
+        }
+
+        @Override
+        public Mascota buscarPorCodigoTag(String codigoTag) {
+            Mascota leida = super.buscarPorCodigoTag(codigoTag);
+            intercalar();
+            return leida;
+        }
+    }, new MicrochipServiceImpl(new InMemoryMicrochipDAO(store)));
+
+    @Test
+    void getByIdNoCacheaUnaMascotaEliminadaDuranteLaLectura() throws Exception {
+        Mascota mascota = insertar("Vicky", "TAG-1");
+        escrituraIntercalada = () -> servicio.eliminar(mascota.getId());
+
+        assertEquals("Vicky", servicio.getById(mascota.getId()).getNombre());
+        assertNull(servicio.getById(mascota.getId()));
+    }
+
+    @Test
+    void getByIdsNoCacheaDatosActualizadosDuranteLaLectura() throws Exception {
+        Mascota mascota = insertar("Vicky", "TAG-1");
+        escrituraIntercalada = () -> {
+            Mascota cambio = new Mascota(mascota.getId(), "Vicky II", "Perro", "TAG-1");
+            servicio.actualizar(cambio);
+        };
+
+        servicio.getByIds(List.of(mascota.getId()));
+        assertEquals("Vicky II", servicio.getById(mascota.getId()).getNombre());
+    }
+
+    @Test
+    void buscarPorCodigoTagNoCacheaUnaMascotaEliminadaDuranteLaLectura() throws Exception {
+        Mascota mascota = insertar("Vicky", "TAG-1");
+        escrituraIntercalada = () -> servicio.eliminar(mascota.getId());
+
+        assertEquals(mascota.getId(), servicio.buscarPorCodigoTag("TAG-1").getId());
+        assertNull(servicio.buscarPorCodigoTag("TAG-1"));
+        assertNull(servicio.getById(mascota.getId()));
+    }
+
+    // ==================== Auxiliares ====================
+
+    private Mascota insertar(String nombre, String codigoTag) throws Exception {
+        Mascota mascota = new Mascota(0, nombre, "Perro", codigoTag);
+        servicio.insertar(mascota);
+        return mascota;
+    }
+
+    private void intercalar() {
+        Escritura escritura = escrituraIntercalada;
+        escrituraIntercalada = null;
+        if (escritura != null) {
+            try {
+                escritura.ejecutar();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Escritura {
+        void ejecutar() throws Exception;
+    }
+}